@@ -0,0 +1,133 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Compares thread count and heap for platform threads, virtual threads and the shared scheduler.
+ * Run with: java -cp benchmarks/target/benchmarks.jar ExecutionModeBenchmark [sessions...]   (defaults to 1000 and 10000)
+ * Probes use a fake engine that blocks for a fixed time, so no network traffic is sent.
+ */
+public class ExecutionModeBenchmark {
+    private static final int INTERVAL_MS = 1000;
+    private static final int PROBE_BLOCK_MS = 20;
+    private static final int MEASURE_MS = 5000;
+
+    public static void main(String[] args) throws Exception {
+        int[] sessionCounts = args.length == 0 ? new int[]{1000, 10000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sessionCounts[i] = Integer.parseInt(args[i]);
+        }
+
+        System.out.println("Java " + System.getProperty("java.version") + ", virtual threads "
+                + (SessionExecutor.isVirtualThreadSupported() ? "available" : "not available"));
+        System.out.printf("%-10s %8s %10s %12s %12s %12s%n", "mode", "sessions", "threads", "heap MB", "rss MB", "probes/s");
+        for (int sessions : sessionCounts) {
+            for (SessionExecutor.Mode mode : SessionExecutor.Mode.values()) {
+                if (mode == SessionExecutor.Mode.VIRTUAL && !SessionExecutor.isVirtualThreadSupported()) {
+                    System.out.printf("%-10s %8d %10s%n", mode, sessions, "skipped");
+                    continue;
+                }
+                run(mode, sessions);
+            }
+        }
+    }
+
+    private static void run(SessionExecutor.Mode mode, int sessions) throws Exception {
+        System.gc();
+        long baselineHeap = usedHeap();
+        long baselineRss = residentMemory();
+        int baselineThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        ProbeScheduler scheduler = new ProbeScheduler(ProbeScheduler.DEFAULT_WORKERS);
+        SessionExecutor executor = new SessionExecutor(mode, scheduler);
+        LongAdder probes = new LongAdder();
+        ProbeEngine engine = new BlockingEngine();
+        List<ProbeSession> started = new ArrayList<>(sessions);
+        String error = null;
+        double probesPerSecond = 0;
+        try {
+            for (int i = 0; i < sessions; i++) {
+                ProbeSession session = new ProbeSession("127.0.0.1", engine, INTERVAL_MS, 0, INTERVAL_MS, new ProbeSession.Listener() {
+                    @Override
+                    public void onResult(ProbeResult result) {
+                        probes.increment();
+                    }
+
+                    @Override
+                    public void onFinished() {
+                    }
+                });
+                executor.start(session);
+                started.add(session);
+            }
+            Thread.sleep(INTERVAL_MS); // Let every session reach its steady state
+            long probesBefore = probes.sum();
+            long start = System.nanoTime();
+            Thread.sleep(MEASURE_MS);
+            probesPerSecond = (probes.sum() - probesBefore) * 1e9 / (System.nanoTime() - start);
+        } catch (OutOfMemoryError e) {
+            error = e.getMessage();
+        }
+
+        int threads = ManagementFactory.getThreadMXBean().getThreadCount() - baselineThreads;
+        long heap = usedHeap() - baselineHeap;
+        long rss = residentMemory() - baselineRss;
+
+        for (ProbeSession session : started) {
+            session.stop();
+        }
+        executor.shutdown();
+        scheduler.shutdown();
+        Thread.sleep(500);
+
+        if (error != null) {
+            System.out.printf("%-10s %8d %10s  %s after %d sessions%n", mode, sessions, "failed", error, started.size());
+        } else {
+            System.out.printf("%-10s %8d %10d %12.1f %12s %12.0f%n", mode, sessions, threads, heap / (1024.0 * 1024.0),
+                    rss < 0 ? "n/a" : String.format("%.1f", rss / (1024.0 * 1024.0)), probesPerSecond);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Thread stacks live outside the heap, so the resident set is what shows the cost of platform threads (Linux only)
+    private static long residentMemory() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not available on this platform
+        }
+        return -1;
+    }
+
+    // Stands in for a probe waiting on the network
+    private static class BlockingEngine implements ProbeEngine {
+        @Override
+        public ProbeResult probe(InetAddress address, int timeoutMillis) {
+            try {
+                Thread.sleep(PROBE_BLOCK_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return ProbeResult.error("Interrupted");
+            }
+            return ProbeResult.reply(PROBE_BLOCK_MS * 1000L);
+        }
+
+        @Override
+        public String getName() {
+            return "blocking";
+        }
+    }
+}
@@ -0,0 +1,6 @@
+// The same 1000-target scrape when no target recorded anything since the last one, so it streams cached lines
+public class IdleMetricsScrapeWorkload extends MetricsScrapeWorkload {
+    public IdleMetricsScrapeWorkload() {
+        super(0);
+    }
+}
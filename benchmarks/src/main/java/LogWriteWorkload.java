@@ -0,0 +1,48 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+// What a probe thread pays per logged line: one SessionLogWriter.append into a temporary log tree
+public class LogWriteWorkload implements LongSupplier, AutoCloseable {
+    private static final String LINE = "Reply from 192.168.1.1: bytes=32 time=1ms TTL=64";
+    // Spread over a few targets like a page of ping areas would
+    private static final String[] TARGETS = {"10.0.0.1", "10.0.0.2", "10.0.0.3", "10.0.0.4", "10.0.0.5", "10.0.0.6", "10.0.0.7", "10.0.0.8"};
+
+    private final Path root;
+    private final SessionLogWriter writer;
+
+    public LogWriteWorkload() {
+        try {
+            root = Files.createTempDirectory("pingpanel-bench-logs");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        writer = new SessionLogWriter(root, SessionLogWriter.DEFAULT_ROLL_BYTES, TimeUnit.HOURS.toMillis(SessionLogWriter.DEFAULT_ROLL_HOURS));
+    }
+
+    @Override
+    public long getAsLong() {
+        // Safe to call from several benchmark threads, like the probe workers do
+        int target = ThreadLocalRandom.current().nextInt(TARGETS.length);
+        writer.append(TARGETS[target], "2024-01-01 10-00-00-AM", "2024-01-01 10-00-00-AM.txt", LINE);
+        return target;
+    }
+
+    public long getDroppedRecords() {
+        return writer.getDroppedRecords();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
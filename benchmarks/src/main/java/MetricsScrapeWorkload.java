@@ -0,0 +1,77 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.LongSupplier;
+
+// One /metrics scrape of 1000 targets as MetricsServer does it, prepare() then writeTo() under the registry's lock.
+// Every target records a reply between scrapes, so each one is re-rendered: the worst case for a scrape.
+public class MetricsScrapeWorkload implements LongSupplier {
+    static final int TARGETS = 1000;
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final MetricsRegistry.TargetMetrics[] targets = new MetricsRegistry.TargetMetrics[TARGETS];
+    private final int changedPerScrape;
+    private final CountingStream out = new CountingStream();
+    private long seed = 42;
+    private long now = System.currentTimeMillis();
+    private int next;
+
+    public MetricsScrapeWorkload() {
+        this(TARGETS);
+    }
+
+    protected MetricsScrapeWorkload(int changedPerScrape) {
+        this.changedPerScrape = changedPerScrape;
+        for (int i = 0; i < TARGETS; i++) {
+            targets[i] = registry.target("10.0." + (i / 256) + "." + (i % 256));
+            for (int j = 0; j < 100; j++) {
+                record(targets[i]);
+            }
+        }
+        registry.addValue("pingpanel_scheduler_dispatched_probes", "counter", () -> now);
+        registry.addValue("pingpanel_scheduler_worker_threads", "gauge", () -> 16);
+    }
+
+    @Override
+    public long getAsLong() {
+        for (int i = 0; i < changedPerScrape; i++) {
+            record(targets[next]);
+            next = (next + 1) % TARGETS;
+        }
+        out.count = 0;
+        try {
+            synchronized (registry) {
+                int length = registry.prepare();
+                registry.writeTo(out);
+                return length + out.count;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void record(MetricsRegistry.TargetMetrics metrics) {
+        seed = seed * 6364136223846793005L + 1442695040888963407L;
+        now += 1000;
+        if ((seed >>> 60) == 0) {
+            metrics.recordLoss();
+        } else {
+            metrics.recordReply(500 + ((seed >>> 33) & 0xFFFF), now);
+        }
+    }
+
+    // Stands in for the HTTP response body, so the numbers leave out the socket
+    private static final class CountingStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
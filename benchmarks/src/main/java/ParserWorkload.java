@@ -0,0 +1,42 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+// One pass of PingOutputParser over the bundled corpus of Linux, BusyBox, macOS and Windows ping output
+public class ParserWorkload implements LongSupplier {
+    private final String[] lines = loadCorpus();
+    private final PingOutputParser parser = new PingOutputParser();
+
+    @Override
+    public long getAsLong() {
+        long checksum = 0;
+        for (String line : lines) {
+            if (parser.parse(line) == PingOutputParser.REPLY) {
+                checksum += parser.getRttMicros();
+            } else {
+                checksum++;
+            }
+        }
+        return checksum;
+    }
+
+    static String[] loadCorpus() {
+        List<String> lines = new ArrayList<>();
+        try (InputStream in = ParserWorkload.class.getResourceAsStream("/ping-corpus.txt");
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return lines.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,24 @@
+import java.util.function.LongSupplier;
+
+// The per-line check MainTab.startPing used before PingOutputParser, kept as the baseline
+public class RegexParserWorkload implements LongSupplier {
+    private final String[] lines = ParserWorkload.loadCorpus();
+
+    @Override
+    public long getAsLong() {
+        long checksum = 0;
+        for (String line : lines) {
+            if (line.contains("time=")) {
+                try {
+                    checksum += Long.parseLong(line.replaceAll(".*time=(\\d+).*", "$1"));
+                } catch (NumberFormatException e) {
+                    // Fractional times such as "time=12.3 ms" never parsed here
+                    checksum--;
+                }
+            } else if (line.contains("Request timed out") || line.contains("Destination host unreachable")) {
+                checksum++;
+            }
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,53 @@
+import java.net.InetAddress;
+import java.util.function.LongSupplier;
+
+// One ProbeScheduler tick for the next of many sessions, handed to the worker pool with a probe that answers at once
+public class SchedulerDispatchWorkload implements LongSupplier, AutoCloseable {
+    private static final int SESSIONS = 1000;
+
+    private final ProbeScheduler scheduler = new ProbeScheduler(ProbeScheduler.DEFAULT_WORKERS);
+    private final ProbeSession[] sessions = new ProbeSession[SESSIONS];
+    private int next;
+
+    public SchedulerDispatchWorkload() {
+        ProbeEngine engine = new ProbeEngine() {
+            @Override
+            public ProbeResult probe(InetAddress address, int timeoutMillis) {
+                return ProbeResult.reply(1000);
+            }
+
+            @Override
+            public String getName() {
+                return "instant";
+            }
+        };
+        ProbeSession.Listener listener = new ProbeSession.Listener() {
+            @Override
+            public void onResult(ProbeResult result) {
+            }
+
+            @Override
+            public void onFinished() {
+            }
+        };
+        for (int i = 0; i < SESSIONS; i++) {
+            sessions[i] = new ProbeSession("127.0.0.1", engine, 1000, 0, 1000, listener);
+        }
+    }
+
+    @Override
+    public long getAsLong() {
+        scheduler.dispatch(sessions[next]);
+        next = next + 1 == SESSIONS ? 0 : next + 1;
+        return scheduler.getDispatchedProbes();
+    }
+
+    public long getSkippedProbes() {
+        return scheduler.getSkippedProbes();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+    }
+}
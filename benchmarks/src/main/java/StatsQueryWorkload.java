@@ -0,0 +1,27 @@
+import java.util.function.LongSupplier;
+
+// What a UI refresh reads from a filled LatencyStats: three percentiles and the one-minute loss
+public class StatsQueryWorkload implements LongSupplier {
+    private final LatencyStats stats = new LatencyStats();
+    private final long now;
+
+    public StatsQueryWorkload() {
+        long time = System.currentTimeMillis() - 3_600_000;
+        long seed = 42;
+        for (int i = 0; i < 3600; i++, time += 1000) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            if ((seed >>> 60) == 0) {
+                stats.recordLoss(time);
+            } else {
+                stats.recordReply(500 + ((seed >>> 33) & 0xFFFF), time);
+            }
+        }
+        now = time;
+    }
+
+    @Override
+    public long getAsLong() {
+        return stats.getValueAtPercentile(50) + stats.getValueAtPercentile(95) + stats.getValueAtPercentile(99)
+                + (long) stats.getLossPercent(LatencyStats.WINDOW_1_MINUTE, now);
+    }
+}
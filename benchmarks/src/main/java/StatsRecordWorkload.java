@@ -0,0 +1,19 @@
+import java.util.function.LongSupplier;
+
+// Per-reply bookkeeping: LatencyStats for the UI and the target's metrics counters
+public class StatsRecordWorkload implements LongSupplier {
+    private final LatencyStats stats = new LatencyStats();
+    private final MetricsRegistry.TargetMetrics metrics = new MetricsRegistry().target("10.0.0.1");
+    private long seed = 42;
+    private long now = System.currentTimeMillis();
+
+    @Override
+    public long getAsLong() {
+        seed = seed * 6364136223846793005L + 1442695040888963407L;
+        long rttMicros = 500 + ((seed >>> 33) & 0xFFFF);
+        now += 1000;
+        stats.recordReply(rttMicros, now);
+        metrics.recordReply(rttMicros, now);
+        return rttMicros;
+    }
+}
@@ -0,0 +1,46 @@
+package pingpanel.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Appends from several probe threads at once. The writer thread drains to disk in the background, and
+// records it had to drop because it fell behind are printed at the end, so a fast but lossy result stands out.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LogWriteBenchmark {
+    private LongSupplier writer;
+
+    @Setup
+    public void setUp() {
+        writer = Workloads.create("LogWriteWorkload");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        System.out.println("Dropped records: " + writer.getClass().getMethod("getDroppedRecords").invoke(writer));
+        Workloads.close(writer);
+    }
+
+    @Benchmark
+    public long append() {
+        return writer.getAsLong();
+    }
+}
@@ -0,0 +1,43 @@
+package pingpanel.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// One operation is a full scrape of 1000 targets (MetricsRegistry.prepare and writeTo)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    private LongSupplier allChanged;
+    private LongSupplier idle;
+
+    @Setup
+    public void setUp() {
+        allChanged = Workloads.create("MetricsScrapeWorkload");
+        idle = Workloads.create("IdleMetricsScrapeWorkload");
+    }
+
+    @Benchmark
+    public long scrapeAllTargetsChanged() {
+        return allChanged.getAsLong();
+    }
+
+    @Benchmark
+    public long scrapeIdleTargets() {
+        return idle.getAsLong();
+    }
+}
@@ -0,0 +1,43 @@
+package pingpanel.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// One operation is a pass over the whole corpus (ping-corpus.txt, 64 lines)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    private LongSupplier parser;
+    private LongSupplier regex;
+
+    @Setup
+    public void setUp() {
+        parser = Workloads.create("ParserWorkload");
+        regex = Workloads.create("RegexParserWorkload");
+    }
+
+    @Benchmark
+    public long pingOutputParser() {
+        return parser.getAsLong();
+    }
+
+    @Benchmark
+    public long legacyReplaceAll() {
+        return regex.getAsLong();
+    }
+}
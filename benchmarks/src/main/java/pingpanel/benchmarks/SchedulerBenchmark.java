@@ -0,0 +1,45 @@
+package pingpanel.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Cost of one scheduler tick on the timer thread: skip check plus hand-off to the worker pool.
+// Ticks that find their session still in flight are counted as skipped, like a slow probe would cause.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerBenchmark {
+    private LongSupplier scheduler;
+
+    @Setup
+    public void setUp() {
+        scheduler = Workloads.create("SchedulerDispatchWorkload");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        System.out.println("Dispatched: " + scheduler.getAsLong()
+                + ", skipped: " + scheduler.getClass().getMethod("getSkippedProbes").invoke(scheduler));
+        Workloads.close(scheduler);
+    }
+
+    @Benchmark
+    public long dispatch() {
+        return scheduler.getAsLong();
+    }
+}
@@ -0,0 +1,42 @@
+package pingpanel.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsBenchmark {
+    private LongSupplier record;
+    private LongSupplier query;
+
+    @Setup
+    public void setUp() {
+        record = Workloads.create("StatsRecordWorkload");
+        query = Workloads.create("StatsQueryWorkload");
+    }
+
+    @Benchmark
+    public long recordReply() {
+        return record.getAsLong();
+    }
+
+    @Benchmark
+    public long percentilesAndLoss() {
+        return query.getAsLong();
+    }
+}
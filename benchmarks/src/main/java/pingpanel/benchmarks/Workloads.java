@@ -0,0 +1,24 @@
+package pingpanel.benchmarks;
+
+import java.util.function.LongSupplier;
+
+// JMH refuses benchmarks in the unnamed package, and a named package can't refer to the app's classes by name.
+// The workloads therefore live in the unnamed package next to the app and are loaded here by class name.
+final class Workloads {
+    private Workloads() {
+    }
+
+    static LongSupplier create(String className) {
+        try {
+            return (LongSupplier) Class.forName(className).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can't create workload " + className, e);
+        }
+    }
+
+    static void close(LongSupplier workload) throws Exception {
+        if (workload instanceof AutoCloseable) {
+            ((AutoCloseable) workload).close();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+// Probe interval that backs off exponentially while a target keeps failing and snaps back to the base interval on
+// the first reply, so dead hosts stop tying up probe workers with timeouts. After the target goes up or down it can
+// optionally probe faster for a few probes to confirm the change quickly.
+public class AdaptiveInterval {
+    public static final int DEFAULT_MAX_MILLIS = 60000;
+    public static final int DEFAULT_BOOST_PROBES = 0;
+
+    private static final int UNKNOWN = 0;
+    private static final int UP = 1;
+    private static final int DOWN = 2;
+
+    private final int baseMillis;
+    private final int maxMillis;
+    private final int boostProbes;
+    private final int boostMillis;
+    private volatile int currentMillis;
+    private volatile int consecutiveFailures;
+    // Only touched by the thread recording the result
+    private int lastState = UNKNOWN;
+    private int boostRemaining;
+
+    // A boost interval of zero or less means a quarter of the base interval
+    public AdaptiveInterval(int baseMillis, int maxMillis, int boostProbes, int boostMillis) {
+        this.baseMillis = Math.max(1, baseMillis);
+        this.maxMillis = Math.max(this.baseMillis, maxMillis);
+        this.boostProbes = Math.max(0, boostProbes);
+        this.boostMillis = boostMillis > 0 ? Math.min(boostMillis, this.baseMillis) : Math.max(1, this.baseMillis / 4);
+        this.currentMillis = this.baseMillis;
+    }
+
+    public static AdaptiveInterval fromConfig(ConfigurationManager configManager, int baseMillis) {
+        return new AdaptiveInterval(baseMillis,
+                configManager.getInt("adaptiveMaxInterval", DEFAULT_MAX_MILLIS),
+                configManager.getInt("adaptiveBoostProbes", DEFAULT_BOOST_PROBES),
+                configManager.getInt("adaptiveBoostInterval", 0));
+    }
+
+    // Called once per probe result, from one probe thread at a time
+    public void record(boolean success) {
+        boolean changed = lastState != UNKNOWN && (lastState == UP) != success;
+        lastState = success ? UP : DOWN;
+        consecutiveFailures = success ? 0 : consecutiveFailures + 1;
+        if (changed && boostProbes > 0) {
+            boostRemaining = boostProbes;
+        }
+
+        if (boostRemaining > 0) {
+            boostRemaining--;
+            currentMillis = boostMillis;
+        } else if (consecutiveFailures < 2) {
+            currentMillis = baseMillis;
+        } else {
+            // Doubles with every failure after the first, up to the cap
+            int shift = Math.min(consecutiveFailures - 1, 20);
+            currentMillis = (int) Math.min(maxMillis, (long) baseMillis << shift);
+        }
+    }
+
+    public int getCurrentMillis() {
+        return currentMillis;
+    }
+
+    public int getBaseMillis() {
+        return baseMillis;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    // For status text, such as "4000 ms (backing off)"
+    public String describe() {
+        int current = currentMillis;
+        if (current > baseMillis) {
+            return current + " ms (backing off)";
+        } else if (current < baseMillis) {
+            return current + " ms (confirming)";
+        }
+        return current + " ms";
+    }
+}
@@ -0,0 +1,417 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Evaluates the alert rules against every probe result as it comes in. Each rule keeps a little state per target,
+ * so a sample costs a few counter updates: consecutive failures are a counter, and loss and latency windows are
+ * 60 time slots of counts that expire slot by slot. A latency percentile above Y ms is the same as more than the
+ * remaining share of replies being slower than Y, so latency rules count slow replies instead of keeping samples.
+ *
+ * Only changes between firing and resolved are notified, never the samples in between. Commands and webhooks run
+ * on one background thread with a bounded queue; when it backs up, notifications are dropped rather than making
+ * probe threads wait.
+ */
+public class AlertEngine {
+    public static final String DEFAULT_RULES_FILE = "alerts.txt";
+    private static final int WINDOW_SLOTS = 60;
+    private static final int QUEUE_CAPACITY = 256;
+    private static final int COMMAND_TIMEOUT_SECONDS = 30;
+    private static final int WEBHOOK_TIMEOUT_MILLIS = 5000;
+
+    private final List<AlertRule> rules;
+    private final Map<String, RuleState[]> states = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor actions;
+    private final int webhookTimeoutMillis;
+    private final LongAdder firedAlerts = new LongAdder();
+    private final LongAdder suppressedAlerts = new LongAdder();
+    private final LongAdder droppedActions = new LongAdder();
+    private final LongAdder failedActions = new LongAdder();
+
+    public AlertEngine(List<AlertRule> rules) {
+        this(rules, WEBHOOK_TIMEOUT_MILLIS);
+    }
+
+    // Package-private so the tests can use a short webhook timeout
+    AlertEngine(List<AlertRule> rules, int webhookTimeoutMillis) {
+        this.webhookTimeoutMillis = webhookTimeoutMillis;
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        this.actions = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, "alert-actions");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static AlertEngine fromConfig(ConfigurationManager configManager) {
+        String file = configManager.getProperty("alertRulesFile", DEFAULT_RULES_FILE);
+        List<AlertRule> rules = new ArrayList<>();
+        try {
+            rules = AlertRule.load(Paths.get(file));
+        } catch (IOException e) {
+            System.err.println("Error reading alert rules from " + file + ": " + e.getMessage());
+        }
+        return new AlertEngine(rules);
+    }
+
+    public List<AlertRule> getRules() {
+        return rules;
+    }
+
+    // Called from probe threads with each result as it arrives
+    public void record(String target, ProbeResult result, long timestampMillis) {
+        if (rules.isEmpty()) {
+            return;
+        }
+        for (RuleState state : states.computeIfAbsent(target, this::createStates)) {
+            if (state != null) {
+                state.record(result, timestampMillis);
+            }
+        }
+    }
+
+    // Lets the queued notifications go out, waiting a few seconds at most
+    public void shutdown() {
+        actions.shutdown();
+        try {
+            actions.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getFiredAlerts() {
+        return firedAlerts.sum();
+    }
+
+    public long getSuppressedAlerts() {
+        return suppressedAlerts.sum();
+    }
+
+    public long getDroppedActions() {
+        return droppedActions.sum();
+    }
+
+    public long getFailedActions() {
+        return failedActions.sum();
+    }
+
+    public int getFiringAlerts() {
+        int firing = 0;
+        for (RuleState[] targetStates : states.values()) {
+            for (RuleState state : targetStates) {
+                if (state != null && state.isFiring()) {
+                    firing++;
+                }
+            }
+        }
+        return firing;
+    }
+
+    private RuleState[] createStates(String target) {
+        RuleState[] targetStates = new RuleState[rules.size()];
+        for (int i = 0; i < targetStates.length; i++) {
+            AlertRule rule = rules.get(i);
+            if (rule.appliesTo(target)) {
+                targetStates[i] = new RuleState(rule, target);
+            }
+        }
+        return targetStates;
+    }
+
+    // One rule on one target. Results for a target come from one session, so the lock is practically uncontended.
+    private final class RuleState {
+        private final AlertRule rule;
+        private final String target;
+        private volatile boolean firing;
+        private boolean notified;
+        private long lastNotifiedMillis = -1;
+
+        // Failures rules
+        private int failures;
+        private int successes;
+
+        // Loss and latency rules: samples per slot, and per slot the samples that count against the threshold and
+        // against the clear level
+        private final long slotMillis;
+        private final int[] samples;
+        private final int[] overThreshold;
+        private final int[] overClear;
+        private long currentSlot = -1;
+        private int sampleSum;
+        private int overThresholdSum;
+        private int overClearSum;
+
+        RuleState(AlertRule rule, String target) {
+            this.rule = rule;
+            this.target = target;
+            boolean windowed = rule.getType() != AlertRule.Type.FAILURES;
+            this.slotMillis = Math.max(1, rule.getWindowSeconds() * 1000L / WINDOW_SLOTS);
+            this.samples = windowed ? new int[WINDOW_SLOTS] : null;
+            this.overThreshold = windowed ? new int[WINDOW_SLOTS] : null;
+            this.overClear = windowed ? new int[WINDOW_SLOTS] : null;
+        }
+
+        boolean isFiring() {
+            return firing;
+        }
+
+        synchronized void record(ProbeResult result, long now) {
+            switch (rule.getType()) {
+                case FAILURES:
+                    if (result.isSuccess()) {
+                        failures = 0;
+                        successes++;
+                    } else {
+                        failures++;
+                        successes = 0;
+                    }
+                    evaluate(failures >= rule.getThreshold(), successes >= rule.getClear(), now);
+                    break;
+                case LOSS:
+                    if (result.getStatus() == ProbeResult.Status.ERROR) {
+                        // The probe never went out, so it says nothing about the path
+                        return;
+                    }
+                    boolean lost = !result.isSuccess();
+                    add(now, lost, lost);
+                    evaluate(100.0 * overThresholdSum / sampleSum > rule.getThreshold(),
+                            100.0 * overClearSum / sampleSum <= rule.getClear(), now);
+                    break;
+                case LATENCY:
+                    if (!result.isSuccess()) {
+                        return;
+                    }
+                    double rttMillis = result.getRttMicros() / 1000.0;
+                    add(now, rttMillis > rule.getThreshold(), rttMillis > rule.getClear());
+                    double allowed = sampleSum * (100 - rule.getPercentile()) / 100;
+                    evaluate(overThresholdSum > allowed, overClearSum <= allowed, now);
+                    break;
+            }
+        }
+
+        // Expires the slots that fell out of the window, at most one full turn of the ring per sample
+        private void add(long now, boolean overThresholdSample, boolean overClearSample) {
+            long slot = now / slotMillis;
+            if (currentSlot < 0 || slot - currentSlot >= WINDOW_SLOTS) {
+                clearWindow();
+            } else {
+                for (long expired = currentSlot + 1; expired <= slot; expired++) {
+                    int index = (int) (expired % WINDOW_SLOTS);
+                    sampleSum -= samples[index];
+                    overThresholdSum -= overThreshold[index];
+                    overClearSum -= overClear[index];
+                    samples[index] = 0;
+                    overThreshold[index] = 0;
+                    overClear[index] = 0;
+                }
+            }
+            // Clock steps backwards are counted in the current slot
+            currentSlot = Math.max(currentSlot, slot);
+            int index = (int) (currentSlot % WINDOW_SLOTS);
+            samples[index]++;
+            sampleSum++;
+            if (overThresholdSample) {
+                overThreshold[index]++;
+                overThresholdSum++;
+            }
+            if (overClearSample) {
+                overClear[index]++;
+                overClearSum++;
+            }
+        }
+
+        private void clearWindow() {
+            for (int i = 0; i < WINDOW_SLOTS; i++) {
+                samples[i] = 0;
+                overThreshold[i] = 0;
+                overClear[i] = 0;
+            }
+            sampleSum = 0;
+            overThresholdSum = 0;
+            overClearSum = 0;
+        }
+
+        private void evaluate(boolean fire, boolean clear, long now) {
+            if (!firing) {
+                // Windowed rules wait for enough samples, so a single lost probe after a restart isn't 100% loss
+                if (!fire || (samples != null && sampleSum < rule.getMinSamples())) {
+                    return;
+                }
+                firing = true;
+                notified = false;
+                if (inCooldown(now)) {
+                    // Flapping within the cooldown: held back, and sent below if it still fires once the cooldown ends
+                    suppressedAlerts.increment();
+                    return;
+                }
+                sendFiring(now);
+            } else if (clear) {
+                firing = false;
+                // A held back alert clears without either message going out
+                if (notified) {
+                    notified = false;
+                    lastNotifiedMillis = now;
+                    notify(false, now);
+                }
+            } else if (!notified && !inCooldown(now)) {
+                sendFiring(now);
+            }
+        }
+
+        private boolean inCooldown(long now) {
+            return lastNotifiedMillis >= 0 && now - lastNotifiedMillis < rule.getCooldownSeconds() * 1000L;
+        }
+
+        private void sendFiring(long now) {
+            notified = true;
+            lastNotifiedMillis = now;
+            firedAlerts.increment();
+            notify(true, now);
+        }
+
+        // Only built when an alert changes state, so the per-sample path never formats text
+        private void notify(boolean fired, long now) {
+            String state = fired ? "firing" : "resolved";
+            String value;
+            String message;
+            switch (rule.getType()) {
+                case FAILURES:
+                    value = String.valueOf(fired ? failures : successes);
+                    message = fired ? failures + " probes in a row failed" : successes + " replies in a row";
+                    break;
+                case LOSS:
+                    value = String.format(Locale.ROOT, "%.1f", 100.0 * (fired ? overThresholdSum : overClearSum) / sampleSum);
+                    message = value + "% loss over " + rule.getWindowSeconds() + " s";
+                    break;
+                default:
+                    // The share of replies slower than the level that decided the change
+                    double limit = fired ? rule.getThreshold() : rule.getClear();
+                    value = String.format(Locale.ROOT, "%.1f", 100.0 * (fired ? overThresholdSum : overClearSum) / sampleSum);
+                    message = "p" + formatNumber(rule.getPercentile()) + (fired ? " above " : " at or below ") + formatNumber(limit)
+                            + " ms over " + rule.getWindowSeconds() + " s, " + value + "% of " + sampleSum + " replies slower";
+                    break;
+            }
+            System.err.println("Alert " + rule.getName() + " " + state + " for " + target + ": " + message);
+            try {
+                actions.execute(() -> runActions(rule, target, state, now, value, message));
+            } catch (RejectedExecutionException e) {
+                droppedActions.increment();
+            }
+        }
+    }
+
+    private void runActions(AlertRule rule, String target, String state, long timestampMillis, String value, String message) {
+        if (rule.getCommand() != null) {
+            runCommand(rule, target, state, timestampMillis, value, message);
+        }
+        if (rule.getWebhook() != null) {
+            postWebhook(rule, target, state, timestampMillis, value, message);
+        }
+    }
+
+    private void runCommand(AlertRule rule, String target, String state, long timestampMillis, String value, String message) {
+        boolean windows = System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("win");
+        ProcessBuilder builder = windows
+                ? new ProcessBuilder("cmd", "/c", rule.getCommand())
+                : new ProcessBuilder("sh", "-c", rule.getCommand());
+        Map<String, String> environment = builder.environment();
+        environment.put("PINGPANEL_ALERT_RULE", rule.getName());
+        environment.put("PINGPANEL_ALERT_TARGET", target);
+        environment.put("PINGPANEL_ALERT_STATE", state);
+        environment.put("PINGPANEL_ALERT_VALUE", value);
+        environment.put("PINGPANEL_ALERT_MESSAGE", rule.getName() + " " + state + " for " + target + ": " + message);
+        environment.put("PINGPANEL_ALERT_TIMESTAMP", String.valueOf(timestampMillis));
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        try {
+            Process process = builder.start();
+            if (!process.waitFor(COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                failedActions.increment();
+                System.err.println("Alert command for " + rule.getName() + " timed out");
+            } else if (process.exitValue() != 0) {
+                failedActions.increment();
+                System.err.println("Alert command for " + rule.getName() + " exited with " + process.exitValue());
+            }
+        } catch (IOException e) {
+            failedActions.increment();
+            System.err.println("Error running alert command for " + rule.getName() + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void postWebhook(AlertRule rule, String target, String state, long timestampMillis, String value, String message) {
+        String body = "{\"rule\":\"" + escapeJson(rule.getName()) + "\""
+                + ",\"target\":\"" + escapeJson(target) + "\""
+                + ",\"state\":\"" + state + "\""
+                + ",\"type\":\"" + rule.getType().name().toLowerCase(Locale.ROOT) + "\""
+                + ",\"value\":" + value
+                + ",\"threshold\":" + formatNumber(rule.getThreshold())
+                + ",\"message\":\"" + escapeJson(message) + "\""
+                + ",\"timestamp\":" + timestampMillis + "}";
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(rule.getWebhook()).openConnection();
+            connection.setConnectTimeout(webhookTimeoutMillis);
+            connection.setReadTimeout(webhookTimeoutMillis);
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+            int status = connection.getResponseCode();
+            if (status / 100 != 2) {
+                failedActions.increment();
+                System.err.println("Alert webhook for " + rule.getName() + " returned " + status);
+            }
+            InputStream in = status / 100 == 2 ? connection.getInputStream() : connection.getErrorStream();
+            if (in != null) {
+                in.close();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            failedActions.increment();
+            System.err.println("Error posting alert webhook for " + rule.getName() + ": " + e.getMessage());
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    private static String formatNumber(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    private static String escapeJson(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,208 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * One alert rule, read from a block of the alert rules file:
+ *
+ *   [core down]
+ *   type=failures          failures | loss | latency
+ *   threshold=5            consecutive failures, loss percent, or latency in ms
+ *   clear=2                replies in a row, loss percent or latency in ms at which the alert resolves
+ *   window=300             seconds, for loss and latency
+ *   percentile=95          for latency
+ *   targets=10.0.0.1, gw   optional, all targets when left out
+ *   command=notify-send PingPanel "$PINGPANEL_ALERT_MESSAGE"
+ *   webhook=http://127.0.0.1:9000/alerts
+ *
+ * Commands run through the shell with the alert in PINGPANEL_ALERT_* environment variables; webhooks get it as a
+ * JSON POST. The gap between threshold and clear is the hysteresis that keeps a target near the limit from flapping.
+ */
+public class AlertRule {
+
+    public enum Type {
+        FAILURES,
+        LOSS,
+        LATENCY
+    }
+
+    private final String name;
+    private final Type type;
+    private final double threshold;
+    private final double clear;
+    private final int windowSeconds;
+    private final double percentile;
+    private final int minSamples;
+    private final int cooldownSeconds;
+    private final List<String> targets;
+    private final String command;
+    private final String webhook;
+
+    public AlertRule(String name, Type type, double threshold, double clear, int windowSeconds, double percentile,
+                     int minSamples, int cooldownSeconds, List<String> targets, String command, String webhook) {
+        this.name = name;
+        this.type = type;
+        this.threshold = threshold;
+        this.clear = clear;
+        this.windowSeconds = Math.max(1, windowSeconds);
+        this.percentile = percentile;
+        this.minSamples = Math.max(1, minSamples);
+        this.cooldownSeconds = Math.max(0, cooldownSeconds);
+        this.targets = Collections.unmodifiableList(new ArrayList<>(targets));
+        this.command = command;
+        this.webhook = webhook;
+    }
+
+    // Rules with errors are reported and left out, so one typo doesn't disable every alert
+    public static List<AlertRule> load(Path file) throws IOException {
+        List<AlertRule> rules = new ArrayList<>();
+        if (!Files.isRegularFile(file)) {
+            return rules;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String name = null;
+            Map<String, String> values = new HashMap<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (line.startsWith("[") && line.endsWith("]")) {
+                    addRule(rules, name, values);
+                    name = line.substring(1, line.length() - 1).trim();
+                    values = new HashMap<>();
+                    continue;
+                }
+                int separator = line.indexOf('=');
+                if (name != null && separator > 0) {
+                    values.put(line.substring(0, separator).trim().toLowerCase(Locale.ROOT), line.substring(separator + 1).trim());
+                }
+            }
+            addRule(rules, name, values);
+        }
+        return rules;
+    }
+
+    private static void addRule(List<AlertRule> rules, String name, Map<String, String> values) {
+        if (name == null) {
+            return;
+        }
+        try {
+            rules.add(fromValues(name, values));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Skipping alert rule " + name + ": " + e.getMessage());
+        }
+    }
+
+    static AlertRule fromValues(String name, Map<String, String> values) {
+        Type type;
+        try {
+            type = Type.valueOf(values.getOrDefault("type", "").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("type must be failures, loss or latency");
+        }
+        if (!values.containsKey("threshold")) {
+            throw new IllegalArgumentException("threshold is missing");
+        }
+        double threshold = parseDouble(values, "threshold", 0);
+        // Without an explicit clear level, failures clear on the first reply and the others at the threshold
+        double clear = parseDouble(values, "clear", type == Type.FAILURES ? 1 : threshold);
+        if (type != Type.FAILURES && clear > threshold) {
+            throw new IllegalArgumentException("clear must not be above threshold");
+        }
+        String command = values.get("command");
+        String webhook = values.get("webhook");
+        if (command == null && webhook == null) {
+            throw new IllegalArgumentException("needs a command or a webhook");
+        }
+        List<String> targets = new ArrayList<>();
+        for (String target : values.getOrDefault("targets", "").split("[,\\s]+")) {
+            if (!target.isEmpty()) {
+                targets.add(target);
+            }
+        }
+        return new AlertRule(name, type, threshold, clear,
+                (int) parseDouble(values, "window", 300),
+                parseDouble(values, "percentile", 95),
+                (int) parseDouble(values, "minsamples", 10),
+                (int) parseDouble(values, "cooldown", 300),
+                targets, command, webhook);
+    }
+
+    private static double parseDouble(Map<String, String> values, String key, double defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " is not a number: " + value);
+        }
+    }
+
+    public boolean appliesTo(String target) {
+        return targets.isEmpty() || targets.contains(target);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public double getClear() {
+        return clear;
+    }
+
+    public int getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    // Loss and latency rules stay quiet until the window holds at least this many samples
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    // A rule that fires again this soon after its last notification is tracked but not notified
+    public int getCooldownSeconds() {
+        return cooldownSeconds;
+    }
+
+    public List<String> getTargets() {
+        return targets;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public String getWebhook() {
+        return webhook;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + type.name().toLowerCase(Locale.ROOT) + " " + threshold + "/" + clear
+                + (targets.isEmpty() ? "" : " on " + String.join(",", targets)) + ")";
+    }
+}
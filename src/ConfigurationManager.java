@@ -1,33 +1,93 @@
-import javafx.scene.paint.Color;
-
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 public class ConfigurationManager {
     private static final String PROPERTIES_FILE = "config.properties";
-    private Properties props;
+    private static final long SAVE_DELAY_MS = 500;
+
+    private final Path file;
+    private final Properties props = new Properties();
+    // Parsed values by key, default and parser, dropped whenever their key changes
+    private final Map<CacheKey, Object> parsed = new ConcurrentHashMap<>();
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+    private final Object writeLock = new Object();
+    private ScheduledExecutorService writer;
 
     public ConfigurationManager() {
-        props = new Properties();
+        this(Paths.get(PROPERTIES_FILE));
+    }
+
+    public ConfigurationManager(Path file) {
+        this.file = file;
         loadProperties();
     }
 
     private void loadProperties() {
-        try (FileInputStream in = new FileInputStream(PROPERTIES_FILE)) {
+        try (FileInputStream in = new FileInputStream(file.toFile())) {
             props.load(in);
         } catch (IOException e) {
             System.out.println("Error loading the properties file: " + e.getMessage());
         }
     }
 
+    // Edits within SAVE_DELAY_MS of each other are written to disk once
     public void saveProperties() {
-        try (FileOutputStream out = new FileOutputStream(PROPERTIES_FILE)) {
-            props.store(out, "Application Settings");
-        } catch (IOException e) {
-            System.out.println("Error saving the properties file: " + e.getMessage());
+        if (saveScheduled.compareAndSet(false, true)) {
+            try {
+                getWriter().schedule(this::flush, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                flush(); // Already shut down, nothing will come along later to write it
+            }
+        }
+    }
+
+    // Writes pending changes now, through a temporary file so a crash never leaves a half-written config
+    public void flush() {
+        if (!saveScheduled.getAndSet(false)) {
+            return;
+        }
+        Properties snapshot = new Properties();
+        snapshot.putAll(props);
+        synchronized (writeLock) {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    snapshot.store(out, "Application Settings");
+                }
+                try {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                System.out.println("Error saving the properties file: " + e.getMessage());
+            }
+        }
+    }
+
+    public void shutdown() {
+        flush();
+        synchronized (this) {
+            if (writer != null) {
+                writer.shutdownNow();
+            }
         }
     }
 
@@ -35,16 +95,95 @@ public class ConfigurationManager {
         return props.getProperty(key, defaultValue);
     }
 
+    // Parses the setting once and returns the cached result until the key changes.
+    // A value the parser rejects with an IllegalArgumentException falls back to the parsed default.
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(String key, String defaultValue, Function<String, T> parser) {
+        CacheKey cacheKey = new CacheKey(key, defaultValue, parser);
+        Object value = parsed.get(cacheKey);
+        if (value == null) {
+            try {
+                value = parser.apply(props.getProperty(key, defaultValue).trim());
+            } catch (IllegalArgumentException e) {
+                value = parser.apply(defaultValue);
+            }
+            if (value != null) {
+                parsed.put(cacheKey, value);
+            }
+        }
+        return (T) value;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        return getValue(key, String.valueOf(defaultValue), Integer::valueOf);
+    }
+
+    public long getLong(String key, long defaultValue) {
+        return getValue(key, String.valueOf(defaultValue), Long::valueOf);
+    }
+
+    // The same lenient parsing for numbers that don't come from a single setting, e.g. text fields or preset files
+    public static int parseInt(String value, int defaultValue) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
     public void setProperty(String key, String value) {
         props.setProperty(key, value);
+        invalidate(key);
     }
 
     public void removeProperty(String key) {
         props.remove(key);
+        invalidate(key);
         saveProperties();  // Save the properties file after removing the key
     }
 
     public Set<String> getKeys() {
         return props.stringPropertyNames();
     }
+
+    private void invalidate(String key) {
+        parsed.keySet().removeIf(cacheKey -> cacheKey.key.equals(key));
+    }
+
+    private synchronized ScheduledExecutorService getWriter() {
+        if (writer == null) {
+            writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "config-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return writer;
+    }
+
+    private static final class CacheKey {
+        private final String key;
+        private final String defaultValue;
+        private final Function<?, ?> parser;
+
+        CacheKey(String key, String defaultValue, Function<?, ?> parser) {
+            this.key = key;
+            this.defaultValue = defaultValue;
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey that = (CacheKey) other;
+            return key.equals(that.key) && Objects.equals(defaultValue, that.defaultValue) && parser == that.parser;
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() * 31 + Objects.hashCode(defaultValue);
+        }
+    }
 }
@@ -0,0 +1,252 @@
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+// Runs the probe sessions of a preset without any JavaFX class being touched, for headless hosts.
+// Results go to the session logs and the sample store like in the UI, and one CSV or JSON line per probe to stdout.
+//   java HeadlessMonitor <preset> [--targets a,b,...] [--format csv|json] [--interval ms] [--count n] [--adaptive]
+//   java HeadlessMonitor --list
+public class HeadlessMonitor {
+    private static final String USAGE = "Usage: HeadlessMonitor <preset> | --targets a,b,... [--format csv|json] [--interval ms] [--count n] [--adaptive] | --list";
+
+    private final ConfigurationManager configManager;
+    private final boolean json;
+    private final PrintStream out;
+    private final Object outLock = new Object();
+    private final Map<String, LatencyStats> stats = new LinkedHashMap<>();
+    private final List<ProbeSession> sessions = new ArrayList<>();
+    private SessionLogWriter logWriter;
+    private SampleStore sampleStore;
+    private ProbeScheduler probeScheduler;
+    private SessionExecutor sessionExecutor;
+    private MetricsServer metricsServer;
+    private AlertEngine alertEngine;
+
+    public HeadlessMonitor(ConfigurationManager configManager, boolean json, PrintStream out) {
+        this.configManager = configManager;
+        this.json = json;
+        this.out = out;
+    }
+
+    public static void main(String[] args) {
+        String presetName = null;
+        String targetList = null;
+        String format = "csv";
+        Integer interval = null;
+        Integer count = null;
+        boolean list = false;
+        boolean adaptive = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--headless":
+                        break;
+                    case "--list":
+                        list = true;
+                        break;
+                    case "--targets":
+                        targetList = args[++i];
+                        break;
+                    case "--format":
+                        format = args[++i].toLowerCase(Locale.ROOT);
+                        break;
+                    case "--interval":
+                        interval = Integer.parseInt(args[++i]);
+                        break;
+                    case "--count":
+                        count = Integer.parseInt(args[++i]);
+                        break;
+                    case "--adaptive":
+                        adaptive = true;
+                        break;
+                    default:
+                        if (args[i].startsWith("--") || presetName != null) {
+                            throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                        }
+                        presetName = args[i];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "Missing value for " + args[args.length - 1] : e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        ConfigurationManager configManager = new ConfigurationManager();
+        PresetStore presetStore = new PresetStore(configManager);
+        if (list) {
+            presetStore.getNames().forEach(System.out::println);
+            presetStore.shutdown();
+            return;
+        }
+
+        List<String> targets = new ArrayList<>();
+        int presetInterval = 500;
+        int presetCount = 0;
+        if (presetName != null) {
+            PresetStore.Preset preset = presetStore.get(presetName);
+            if (preset == null) {
+                System.err.println("Preset not found: " + presetName);
+                System.exit(2);
+            }
+            if (preset.getIntervalMillis() > 0) {
+                presetInterval = preset.getIntervalMillis();
+            }
+            presetCount = preset.getCount();
+            adaptive |= preset.isAdaptive();
+            for (String host : preset.getHosts()) {
+                addTargets(targets, host);
+            }
+        }
+        presetStore.shutdown();
+        if (targetList != null) {
+            addTargets(targets, targetList);
+        }
+        if (targets.isEmpty() || !("csv".equals(format) || "json".equals(format))) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 16 * 1024), false);
+        HeadlessMonitor monitor = new HeadlessMonitor(configManager, "json".equals(format), out);
+        Runtime.getRuntime().addShutdownHook(new Thread(monitor::stop, "headless-shutdown"));
+        monitor.run(targets, interval != null ? interval : presetInterval, count != null ? count : presetCount, adaptive);
+    }
+
+    // Blocks until every session has sent its count, or forever for a count of zero. Adaptive sessions back off
+    // while their target is down.
+    public void run(List<String> targets, int intervalMillis, int count, boolean adaptive) {
+        logWriter = SessionLogWriter.fromConfig(configManager);
+        sampleStore = new SampleStore();
+        probeScheduler = ProbeScheduler.fromConfig(configManager);
+        sessionExecutor = SessionExecutor.fromConfig(configManager, probeScheduler);
+        MetricsRegistry metrics = new MetricsRegistry();
+        alertEngine = AlertEngine.fromConfig(configManager);
+        metrics.registerProcessMetrics(probeScheduler, logWriter, sampleStore, HostResolver.getDefault(), sessionExecutor.getRateLimiter(), alertEngine);
+        metricsServer = MetricsServer.fromConfig(configManager, metrics);
+        ProbeEngine engine = ProbeEngines.fromConfig(configManager);
+        int timeoutMillis = ProbeEngines.getTimeoutMillis(configManager);
+
+        String dateTime = new SimpleDateFormat("yyyy-MM-dd hh-mm-ss-a").format(new Date());
+        String sessionFileName = dateTime + ".txt";
+        if (!json) {
+            printLine("timestamp,target,status,rtt_ms,ttl");
+        }
+
+        CountDownLatch finished = new CountDownLatch(targets.size());
+        synchronized (sessions) {
+            for (String target : targets) {
+                LatencyStats targetStats = new LatencyStats();
+                MetricsRegistry.TargetMetrics targetMetrics = metrics.target(target);
+                stats.put(target, targetStats);
+                ProbeSession session = new ProbeSession(target, engine, intervalMillis, count, timeoutMillis, new ProbeSession.Listener() {
+                    @Override
+                    public void onResult(ProbeResult result) {
+                        long now = System.currentTimeMillis();
+                        targetStats.record(result, now);
+                        targetMetrics.record(result, now);
+                        alertEngine.record(target, result, now);
+                        logWriter.append(target, dateTime, sessionFileName, result.toOutputLine(target));
+                        sampleStore.append(target, now, result);
+                        printLine(format(now, target, result));
+                    }
+
+                    @Override
+                    public void onFinished() {
+                        logWriter.closeSession(target, dateTime, sessionFileName);
+                        finished.countDown();
+                    }
+                });
+                if (adaptive) {
+                    session.setAdaptiveInterval(AdaptiveInterval.fromConfig(configManager, intervalMillis));
+                }
+                sessions.add(session);
+                sessionExecutor.start(session);
+            }
+        }
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stop();
+    }
+
+    public void stop() {
+        synchronized (sessions) {
+            if (sessions.isEmpty()) {
+                return;
+            }
+            for (ProbeSession session : sessions) {
+                session.stop();
+            }
+            sessions.clear();
+        }
+        if (metricsServer != null) {
+            metricsServer.shutdown();
+        }
+        if (probeScheduler != null) {
+            probeScheduler.shutdown();
+        }
+        if (sessionExecutor != null) {
+            sessionExecutor.shutdown();
+        }
+        if (alertEngine != null) {
+            alertEngine.shutdown();
+        }
+        if (logWriter != null) {
+            logWriter.shutdown();
+        }
+        if (sampleStore != null) {
+            sampleStore.shutdown();
+        }
+        synchronized (outLock) {
+            out.flush();
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, LatencyStats> entry : stats.entrySet()) {
+            System.err.println(entry.getKey() + ": " + entry.getValue().formatSummary(now));
+        }
+    }
+
+    private String format(long timestampMillis, String target, ProbeResult result) {
+        String rtt = result.isSuccess() ? String.format(Locale.ROOT, "%.3f", result.getRttMicros() / 1000.0) : "";
+        String ttl = result.getTtl() >= 0 ? String.valueOf(result.getTtl()) : "";
+        if (json) {
+            return "{\"timestamp\":" + timestampMillis
+                    + ",\"target\":\"" + escapeJson(target) + "\""
+                    + ",\"status\":\"" + result.getStatus() + "\""
+                    + ",\"rttMs\":" + (rtt.isEmpty() ? "null" : rtt)
+                    + ",\"ttl\":" + (ttl.isEmpty() ? "null" : ttl) + "}";
+        }
+        return timestampMillis + "," + target + "," + result.getStatus() + "," + rtt + "," + ttl;
+    }
+
+    private void printLine(String line) {
+        synchronized (outLock) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    private static String escapeJson(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static void addTargets(List<String> targets, String value) {
+        for (String target : value.split("[,\\s]+")) {
+            if (!target.isEmpty() && !targets.contains(target)) {
+                targets.add(target);
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Looks back at stored samples of one target. Segments are memory-mapped and aggregated into one min/max bucket per
+// pixel column, so a month of one-second samples redraws as fast as an hour. Scroll to zoom, drag to pan, double-click resets.
+public class HistoryTab extends LazyTab {
+    private static final String[] RANGE_NAMES = {"Last hour", "Last 24 hours", "Last 7 days", "Last 30 days", "All"};
+    private static final long[] RANGE_MILLIS = {
+            TimeUnit.HOURS.toMillis(1), TimeUnit.DAYS.toMillis(1), TimeUnit.DAYS.toMillis(7), TimeUnit.DAYS.toMillis(30), 0};
+    private static final double AXIS_WIDTH = 60;
+    private static final double AXIS_HEIGHT = 20;
+
+    private ConfigurationManager configManager;
+    private SampleStore sampleStore;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "history-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private VBox mainLayout = new VBox(10);
+    private ChoiceBox<String> targetChoiceBox;
+    private ChoiceBox<String> rangeChoiceBox;
+    private Label statusLabel;
+    private Canvas canvas = new Canvas();
+
+    // Only touched on the loader thread
+    private List<SampleSegmentReader> segments = new ArrayList<>();
+    private String loadedTarget;
+
+    private Future<?> pendingLoad;
+    private RttDownsampler current;
+    private long viewStart;
+    private long viewEnd;
+    private double dragStartX = -1;
+
+    public HistoryTab(ConfigurationManager configManager, SampleStore sampleStore) {
+        super("History");
+        this.configManager = configManager;
+        this.sampleStore = sampleStore;
+        setClosable(false);
+        // Registered after LazyTab's listener, so the content exists by the time this runs
+        selectedProperty().addListener((observable, wasSelected, isSelected) -> {
+            if (isSelected && targetChoiceBox.getItems().isEmpty()) {
+                refreshTargets();
+            }
+        });
+    }
+
+    @Override
+    protected void initializeUI() {
+        mainLayout.setAlignment(Pos.TOP_LEFT);
+        mainLayout.setPadding(new Insets(10));
+
+        targetChoiceBox = new ChoiceBox<>();
+        targetChoiceBox.setOnAction(event -> resetView(true));
+        rangeChoiceBox = new ChoiceBox<>(FXCollections.observableArrayList(RANGE_NAMES));
+        rangeChoiceBox.setValue(RANGE_NAMES[1]);
+        rangeChoiceBox.setOnAction(event -> resetView(false));
+
+        Button refreshButton = new Button("Refresh");
+        refreshButton.setOnAction(event -> refreshTargets());
+
+        statusLabel = new Label("Select a target");
+
+        HBox controls = new HBox(10, new Label("Target: "), targetChoiceBox, rangeChoiceBox, refreshButton, statusLabel);
+        controls.setAlignment(Pos.CENTER_LEFT);
+
+        Pane chartPane = new Pane(canvas);
+        chartPane.setMinSize(0, 0);
+        canvas.widthProperty().bind(chartPane.widthProperty());
+        canvas.heightProperty().bind(chartPane.heightProperty());
+        canvas.widthProperty().addListener((observable, oldValue, newValue) -> reload(false));
+        canvas.heightProperty().addListener((observable, oldValue, newValue) -> draw());
+        VBox.setVgrow(chartPane, Priority.ALWAYS);
+
+        canvas.setOnScroll(event -> {
+            if (current == null || event.getDeltaY() == 0) {
+                return;
+            }
+            double factor = event.getDeltaY() > 0 ? 0.8 : 1.25;
+            long anchor = timeAt(event.getX());
+            long span = Math.max(1000, (long) ((viewEnd - viewStart) * factor));
+            double ratio = (anchor - viewStart) / (double) (viewEnd - viewStart);
+            viewStart = anchor - (long) (span * ratio);
+            viewEnd = viewStart + span;
+            reload(false);
+        });
+        canvas.setOnMousePressed(event -> dragStartX = event.getX());
+        canvas.setOnMouseDragged(event -> {
+            if (current == null || dragStartX < 0) {
+                return;
+            }
+            long shift = timeAt(dragStartX) - timeAt(event.getX());
+            dragStartX = event.getX();
+            viewStart += shift;
+            viewEnd += shift;
+            reload(false);
+        });
+        canvas.setOnMouseClicked(event -> {
+            if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2) {
+                resetView(false);
+            }
+        });
+
+        mainLayout.getChildren().addAll(controls, chartPane);
+        setContent(mainLayout);
+    }
+
+    private void refreshTargets() {
+        String selected = targetChoiceBox.getValue();
+        try {
+            targetChoiceBox.getItems().setAll(sampleStore.listTargets());
+        } catch (IOException e) {
+            System.err.println("Failed to list stored targets: " + e.getMessage());
+        }
+        if (selected != null && targetChoiceBox.getItems().contains(selected)) {
+            targetChoiceBox.setValue(selected);
+            resetView(true);
+        }
+    }
+
+    private void resetView(boolean remap) {
+        long range = RANGE_MILLIS[Math.max(0, rangeChoiceBox.getItems().indexOf(rangeChoiceBox.getValue()))];
+        long now = System.currentTimeMillis();
+        viewEnd = now;
+        viewStart = range == 0 ? 0 : now - range;
+        reload(remap);
+    }
+
+    // Aggregation runs on the loader thread, a newer request cancels the one still running
+    private void reload(boolean remap) {
+        String target = targetChoiceBox.getValue();
+        int buckets = (int) Math.max(1, canvas.getWidth() - AXIS_WIDTH);
+        if (target == null || canvas.getWidth() <= AXIS_WIDTH) {
+            return;
+        }
+        if (pendingLoad != null) {
+            pendingLoad.cancel(true);
+        }
+        long start = viewStart;
+        long end = viewEnd;
+        statusLabel.setText("Loading...");
+        pendingLoad = loader.submit(() -> {
+            try {
+                if (remap || !target.equals(loadedTarget)) {
+                    mapSegments(target);
+                }
+                long from = start;
+                if (from == 0 && !segments.isEmpty()) {
+                    from = segments.get(0).getBaseMillis();
+                }
+                long began = System.nanoTime();
+                RttDownsampler result = RttDownsampler.load(segments, from, end, buckets);
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began);
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                Platform.runLater(() -> {
+                    current = result;
+                    viewStart = result.getStartMillis();
+                    statusLabel.setText(result.getSampleCount() + " samples (" + elapsedMillis + " ms)");
+                    draw();
+                });
+            } catch (IOException e) {
+                System.err.println("Failed to load history for " + target + ": " + e.getMessage());
+                Platform.runLater(() -> statusLabel.setText("Failed to load: " + e.getMessage()));
+            }
+        });
+    }
+
+    private void mapSegments(String target) throws IOException {
+        List<SampleSegmentReader> mapped = new ArrayList<>();
+        for (Path segment : sampleStore.listSegments(target)) {
+            try {
+                mapped.add(SampleSegmentReader.open(segment));
+            } catch (IOException e) {
+                System.err.println("Skipping unreadable segment " + segment + ": " + e.getMessage());
+            }
+        }
+        segments = mapped;
+        loadedTarget = target;
+    }
+
+    private long timeAt(double x) {
+        double plotWidth = Math.max(1, canvas.getWidth() - AXIS_WIDTH);
+        return viewStart + (long) ((x - AXIS_WIDTH) / plotWidth * (viewEnd - viewStart));
+    }
+
+    private void draw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        gc.clearRect(0, 0, width, height);
+        if (current == null || height <= AXIS_HEIGHT) {
+            return;
+        }
+
+        double plotHeight = height - AXIS_HEIGHT;
+        int buckets = current.getBucketCount();
+        double columnWidth = (width - AXIS_WIDTH) / buckets;
+        double scaleMicros = Math.max(1000, current.getHighestMicros() * 1.05);
+
+        gc.setStroke(Color.GRAY);
+        gc.setLineWidth(1);
+        gc.strokeLine(AXIS_WIDTH, 0, AXIS_WIDTH, plotHeight);
+        gc.strokeLine(AXIS_WIDTH, plotHeight, width, plotHeight);
+        gc.setFill(Color.GRAY);
+        gc.fillText(LatencyStats.formatMillis((long) scaleMicros), 4, 12);
+        gc.fillText("0ms", 4, plotHeight);
+
+        Color replyColor = configManager.getValue("reachableColor", "GREEN", Color::valueOf);
+        Color lossColor = configManager.getValue("unreachableColor", "RED", Color::valueOf);
+        for (int i = 0; i < buckets; i++) {
+            double x = AXIS_WIDTH + i * columnWidth;
+            int losses = current.getLosses(i);
+            if (losses > 0) {
+                double lossRatio = losses / (double) (losses + current.getReplies(i));
+                gc.setFill(lossColor);
+                gc.fillRect(x, plotHeight - 4 - lossRatio * 20, Math.max(1, columnWidth), 4 + lossRatio * 20);
+            }
+            if (current.hasReplies(i)) {
+                double top = plotHeight - current.getMaxMicros(i) / scaleMicros * plotHeight;
+                double bottom = plotHeight - current.getMinMicros(i) / scaleMicros * plotHeight;
+                gc.setFill(replyColor);
+                gc.fillRect(x, top, Math.max(1, columnWidth), Math.max(1, bottom - top));
+            }
+        }
+
+        SimpleDateFormat format = new SimpleDateFormat(viewEnd - viewStart > TimeUnit.DAYS.toMillis(2) ? "MM-dd HH:mm" : "HH:mm:ss");
+        gc.setFill(Color.GRAY);
+        for (int tick = 0; tick < 4; tick++) {
+            double x = AXIS_WIDTH + tick * (width - AXIS_WIDTH) / 4;
+            gc.fillText(format.format(new Date(timeAt(x))), x + 2, height - 5);
+        }
+    }
+
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+}
@@ -0,0 +1,248 @@
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.security.Security;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Resolves host names on its own threads and caches the answers, so probes only ever see an InetAddress that is
+ * already known and resolver latency never shows up as RTT. Answers are kept for the JVM's networkaddress.cache.ttl
+ * (30 s by default) and failures for networkaddress.cache.negative.ttl (10 s); InetAddress doesn't expose the
+ * record's own TTL. Names still in use are refreshed in the background once they expire, and the old address is
+ * served until the new one arrives. Names held by a running session count as in use however long its interval; other
+ * names stop being refreshed after a TTL without use and are dropped after an hour, and until then a caller that comes
+ * back is served the last address while it is looked up again. Literal addresses never touch the resolver.
+ *
+ * Every lookup goes through the JVM's own address cache, which has the same TTL and can't be bypassed before JDK 18.
+ * A refresh that ran before the JVM's entry expired would get the same cached answer back and keep it for another
+ * TTL. So entries expire one TTL after the lookup that actually reached DNS, which is when the JVM's entry expires
+ * too. Other code in the process resolving the same name can still refill the JVM cache in between, so an address
+ * can then be up to two TTLs old.
+ */
+public class HostResolver {
+    private static final long DEFAULT_TTL_SECONDS = 30;
+    private static final long DEFAULT_NEGATIVE_TTL_SECONDS = 10;
+    private static final long IDLE_EVICT_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final HostResolver DEFAULT = new HostResolver(
+            securityTtl("networkaddress.cache.ttl", DEFAULT_TTL_SECONDS),
+            securityTtl("networkaddress.cache.negative.ttl", DEFAULT_NEGATIVE_TTL_SECONDS));
+
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder lookupMicros = new LongAdder();
+    private final AtomicLong maxLookupMicros = new AtomicLong();
+
+    private static final class Entry {
+        final String host;
+        volatile InetAddress address;
+        volatile boolean failed;
+        volatile long expiresAt;
+        // When the last lookup that wasn't answered from the JVM's cache finished
+        volatile long queriedAt;
+        volatile long lastUsed;
+        // Running sessions probing this name
+        final AtomicInteger holders = new AtomicInteger();
+        // Set while a lookup for this name is running
+        volatile CompletableFuture<InetAddress> pending;
+
+        Entry(String host) {
+            this.host = host;
+        }
+    }
+
+    public HostResolver(long ttlSeconds, long negativeTtlSeconds) {
+        // A negative TTL means cache forever, as it does for the JVM
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds < 0 ? TimeUnit.DAYS.toSeconds(1) : Math.max(1, ttlSeconds));
+        this.negativeTtlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, negativeTtlSeconds));
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "dns-resolver-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = Math.max(100, TimeUnit.NANOSECONDS.toMillis(ttlNanos) / 10);
+        executor.scheduleWithFixedDelay(this::prefetchExpiring, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Shared by every probe session of the process
+    public static HostResolver getDefault() {
+        return DEFAULT;
+    }
+
+    // Starts resolving the name if it isn't cached yet, without waiting for it
+    public void prefetch(String host) {
+        if (!isLiteral(host)) {
+            touch(host);
+        }
+    }
+
+    // Keeps the name refreshed until release(), for sessions whose interval may be longer than the TTL
+    public void retain(String host) {
+        if (!isLiteral(host)) {
+            touch(host).holders.incrementAndGet();
+        }
+    }
+
+    public void release(String host) {
+        Entry entry = isLiteral(host) ? null : cache.get(host);
+        if (entry != null) {
+            entry.lastUsed = System.nanoTime();
+            entry.holders.decrementAndGet();
+        }
+    }
+
+    // The cached address, or null while the first lookup is still running. Never blocks; an expired entry is
+    // returned as it is while its refresh runs.
+    public InetAddress getCached(String host) throws UnknownHostException {
+        if (isLiteral(host)) {
+            return InetAddress.getByName(host);
+        }
+        Entry entry = touch(host);
+        if (entry.failed) {
+            throw new UnknownHostException(host);
+        }
+        return entry.address;
+    }
+
+    // The cached address as text for handing to a ping process, or the name itself while it isn't known yet
+    public String getCachedText(String host) {
+        try {
+            InetAddress address = getCached(host);
+            return address != null ? address.getHostAddress() : host;
+        } catch (UnknownHostException e) {
+            return host;
+        }
+    }
+
+    // Blocks until the name is resolved, for callers that run on their own threads anyway
+    public InetAddress resolve(String host) throws UnknownHostException {
+        if (isLiteral(host)) {
+            return InetAddress.getByName(host);
+        }
+        Entry entry = touch(host);
+        CompletableFuture<InetAddress> pending = entry.pending;
+        if (pending != null && entry.address == null) {
+            pending.join();
+        }
+        if (entry.failed || entry.address == null) {
+            throw new UnknownHostException(host);
+        }
+        return entry.address;
+    }
+
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getLookupMicros() {
+        return lookupMicros.sum();
+    }
+
+    public long getMaxLookupMicros() {
+        return maxLookupMicros.get();
+    }
+
+    public int getCachedNames() {
+        return cache.size();
+    }
+
+    private Entry touch(String host) {
+        long now = System.nanoTime();
+        Entry entry = cache.computeIfAbsent(host, Entry::new);
+        entry.lastUsed = now;
+        if (entry.pending == null && (entry.expiresAt == 0 || now - entry.expiresAt >= 0)) {
+            lookup(entry);
+        }
+        return entry;
+    }
+
+    private synchronized void lookup(Entry entry) {
+        if (entry.pending != null) {
+            return;
+        }
+        // Published before the lookup starts, so a fast answer can't clear it before it was set
+        CompletableFuture<InetAddress> pending = new CompletableFuture<>();
+        entry.pending = pending;
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            boolean jvmCacheExpired = entry.queriedAt == 0 || start - entry.queriedAt >= ttlNanos;
+            InetAddress address = null;
+            try {
+                address = InetAddress.getByName(entry.host);
+            } catch (UnknownHostException e) {
+                failures.increment();
+            }
+            long micros = (System.nanoTime() - start) / 1000;
+            lookups.increment();
+            lookupMicros.add(micros);
+            maxLookupMicros.accumulateAndGet(micros, Math::max);
+
+            long now = System.nanoTime();
+            if (address != null) {
+                if (jvmCacheExpired) {
+                    entry.queriedAt = now;
+                }
+                entry.address = address;
+                entry.failed = false;
+                entry.expiresAt = entry.queriedAt + ttlNanos;
+            } else if (entry.address != null) {
+                // Keep serving the last good answer and ask again soon
+                entry.expiresAt = now + negativeTtlNanos;
+            } else {
+                entry.failed = true;
+                entry.expiresAt = now + negativeTtlNanos;
+            }
+            entry.pending = null;
+            pending.complete(address);
+        });
+    }
+
+    // Refreshes expired names still in use before a probe asks for them. Names nobody held or asked for during a
+    // whole TTL are left to expire, and forgotten once they have been idle for an hour.
+    private void prefetchExpiring() {
+        long now = System.nanoTime();
+        for (Entry entry : cache.values()) {
+            if (entry.pending != null) {
+                continue;
+            }
+            boolean idle = entry.holders.get() <= 0 && now - entry.lastUsed > ttlNanos;
+            if (idle && now - entry.lastUsed > Math.max(IDLE_EVICT_NANOS, ttlNanos)) {
+                cache.remove(entry.host, entry);
+            } else if (!idle && entry.address != null && now - entry.expiresAt >= 0) {
+                lookup(entry);
+            }
+        }
+    }
+
+    // IP literals resolve without a lookup, so they skip the cache entirely
+    static boolean isLiteral(String host) {
+        return SweepTargets.parseIpv4(host) >= 0 || host.indexOf(':') >= 0;
+    }
+
+    private static long securityTtl(String property, long defaultSeconds) {
+        try {
+            String value = Security.getProperty(property);
+            if (value != null) {
+                return Long.parseLong(value.trim());
+            }
+        } catch (NumberFormatException | SecurityException e) {
+            // Fall back to the JDK default
+        }
+        return defaultSeconds;
+    }
+}
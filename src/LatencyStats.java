@@ -0,0 +1,234 @@
+import java.util.Arrays;
+import java.util.Locale;
+
+// Constant-memory streaming statistics for one target. Recording a sample is O(1); percentiles scan the fixed bucket array.
+public class LatencyStats {
+    public static final int WINDOW_1_MINUTE = 60;
+    public static final int WINDOW_5_MINUTES = 300;
+    public static final int WINDOW_1_HOUR = 3600;
+
+    // Log-linear buckets: values below 64 us are exact, above that every power of two is split into 32 buckets (~3% error)
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int MAX_EXPONENT = 27; // Values are clamped below 2^27 us, about 134 s
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (MAX_EXPONENT - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+    private static final long MAX_TRACKABLE = (1L << MAX_EXPONENT) - 1;
+
+    private static final int[] WINDOWS = {WINDOW_1_MINUTE, WINDOW_5_MINUTES, WINDOW_1_HOUR};
+
+    private final long[] buckets = new long[BUCKET_COUNT];
+    private long received;
+    private long lost;
+    private long minMicros = Long.MAX_VALUE;
+    private long maxMicros = Long.MIN_VALUE;
+    private long totalMicros;
+
+    // RFC 3550 interarrival jitter, using the change in RTT between consecutive replies as the transit difference
+    private double jitterMicros;
+    private long lastRttMicros = -1;
+
+    // One slot per second for the last hour, plus running sums for each window
+    private final int[] sentPerSecond = new int[WINDOW_1_HOUR];
+    private final int[] lostPerSecond = new int[WINDOW_1_HOUR];
+    private final long[] windowSent = new long[WINDOWS.length];
+    private final long[] windowLost = new long[WINDOWS.length];
+    private long currentSecond = Long.MIN_VALUE;
+
+    public synchronized void recordReply(long rttMicros, long nowMillis) {
+        long value = Math.max(0, Math.min(rttMicros, MAX_TRACKABLE));
+        buckets[bucketIndex(value)]++;
+        received++;
+        totalMicros += value;
+        minMicros = Math.min(minMicros, value);
+        maxMicros = Math.max(maxMicros, value);
+
+        if (lastRttMicros >= 0) {
+            jitterMicros += (Math.abs(value - lastRttMicros) - jitterMicros) / 16.0;
+        }
+        lastRttMicros = value;
+
+        recordWindow(nowMillis, false);
+    }
+
+    public synchronized void recordLoss(long nowMillis) {
+        lost++;
+        recordWindow(nowMillis, true);
+    }
+
+    public void record(ProbeResult result, long nowMillis) {
+        if (result.isSuccess()) {
+            recordReply(result.getRttMicros(), nowMillis);
+        } else {
+            recordLoss(nowMillis);
+        }
+    }
+
+    public synchronized long getReceived() {
+        return received;
+    }
+
+    public synchronized long getLost() {
+        return lost;
+    }
+
+    public synchronized long getSent() {
+        return received + lost;
+    }
+
+    public synchronized long getMinMicros() {
+        return received == 0 ? -1 : minMicros;
+    }
+
+    public synchronized long getMaxMicros() {
+        return received == 0 ? -1 : maxMicros;
+    }
+
+    public synchronized double getMeanMicros() {
+        return received == 0 ? -1 : (double) totalMicros / received;
+    }
+
+    public synchronized double getJitterMicros() {
+        return jitterMicros;
+    }
+
+    // Returns the representative value of the bucket holding the given percentile (0-100), or -1 without replies
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (received == 0) {
+            return -1;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * received));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(Math.max(bucketMidpoint(i), minMicros), maxMicros);
+            }
+        }
+        return maxMicros;
+    }
+
+    // Loss over the trailing window, in percent, or -1 if nothing was sent in it
+    public synchronized double getLossPercent(int windowSeconds, long nowMillis) {
+        advanceTo(nowMillis / 1000);
+        for (int w = 0; w < WINDOWS.length; w++) {
+            if (WINDOWS[w] == windowSeconds) {
+                return windowSent[w] == 0 ? -1 : 100.0 * windowLost[w] / windowSent[w];
+            }
+        }
+        throw new IllegalArgumentException("Unsupported window: " + windowSeconds);
+    }
+
+    public synchronized double getLossPercent() {
+        long sent = received + lost;
+        return sent == 0 ? -1 : 100.0 * lost / sent;
+    }
+
+    public synchronized void copyBucketsTo(long[] target) {
+        System.arraycopy(buckets, 0, target, 0, Math.min(target.length, buckets.length));
+    }
+
+    public static int getBucketCount() {
+        return BUCKET_COUNT;
+    }
+
+    public String formatSummary(long nowMillis) {
+        if (getReceived() == 0) {
+            return "RTT: - | Loss 1m " + formatPercent(getLossPercent(WINDOW_1_MINUTE, nowMillis))
+                    + " 5m " + formatPercent(getLossPercent(WINDOW_5_MINUTES, nowMillis))
+                    + " 1h " + formatPercent(getLossPercent(WINDOW_1_HOUR, nowMillis));
+        }
+        return "Min " + formatMillis(getMinMicros()) + " Avg " + formatMillis((long) getMeanMicros()) + " Max " + formatMillis(getMaxMicros())
+                + " | p50 " + formatMillis(getValueAtPercentile(50)) + " p95 " + formatMillis(getValueAtPercentile(95))
+                + " p99 " + formatMillis(getValueAtPercentile(99)) + " p99.9 " + formatMillis(getValueAtPercentile(99.9))
+                + " | Jitter " + formatMillis((long) getJitterMicros())
+                + " | Loss 1m " + formatPercent(getLossPercent(WINDOW_1_MINUTE, nowMillis))
+                + " 5m " + formatPercent(getLossPercent(WINDOW_5_MINUTES, nowMillis))
+                + " 1h " + formatPercent(getLossPercent(WINDOW_1_HOUR, nowMillis));
+    }
+
+    public static String formatMillis(long micros) {
+        if (micros < 0) {
+            return "-";
+        }
+        return String.format(Locale.ROOT, "%.1fms", micros / 1000.0);
+    }
+
+    public static String formatPercent(double percent) {
+        if (percent < 0) {
+            return "-";
+        }
+        return String.format(Locale.ROOT, "%.1f%%", percent);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >> shift) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketLowerBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int exponent = (index - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int exponent = (index - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        return bucketLowerBound(index) + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    private static long bucketMidpoint(int index) {
+        return (bucketLowerBound(index) + bucketUpperBound(index)) / 2;
+    }
+
+    private void recordWindow(long nowMillis, boolean isLoss) {
+        long second = nowMillis / 1000;
+        advanceTo(second);
+        int slot = (int) Math.floorMod(second, (long) WINDOW_1_HOUR);
+        sentPerSecond[slot]++;
+        for (int w = 0; w < WINDOWS.length; w++) {
+            windowSent[w]++;
+        }
+        if (isLoss) {
+            lostPerSecond[slot]++;
+            for (int w = 0; w < WINDOWS.length; w++) {
+                windowLost[w]++;
+            }
+        }
+    }
+
+    // Moves the windows forward one second at a time, dropping the seconds that fall out of each one
+    private void advanceTo(long second) {
+        if (currentSecond == Long.MIN_VALUE || second - currentSecond >= WINDOW_1_HOUR) {
+            Arrays.fill(sentPerSecond, 0);
+            Arrays.fill(lostPerSecond, 0);
+            Arrays.fill(windowSent, 0);
+            Arrays.fill(windowLost, 0);
+            currentSecond = second;
+            return;
+        }
+        while (currentSecond < second) {
+            currentSecond++;
+            for (int w = 0; w < WINDOWS.length; w++) {
+                int expired = (int) Math.floorMod(currentSecond - WINDOWS[w], (long) WINDOW_1_HOUR);
+                windowSent[w] -= sentPerSecond[expired];
+                windowLost[w] -= lostPerSecond[expired];
+            }
+            // The slot for the new second was the one that just left the hour window
+            int slot = (int) Math.floorMod(currentSecond, (long) WINDOW_1_HOUR);
+            sentPerSecond[slot] = 0;
+            lostPerSecond[slot] = 0;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+import javafx.scene.control.Tab;
+
+// Tab whose content is built the first time it is selected, so tabs that aren't opened cost nothing at startup
+public abstract class LazyTab extends Tab {
+    private boolean initialized;
+
+    protected LazyTab(String text) {
+        super(text);
+        selectedProperty().addListener((observable, wasSelected, isSelected) -> {
+            if (isSelected) {
+                ensureInitialized();
+            }
+        });
+    }
+
+    public final boolean isInitialized() {
+        return initialized;
+    }
+
+    public final void ensureInitialized() {
+        if (initialized) {
+            return;
+        }
+        initialized = true;
+        long start = System.nanoTime();
+        initializeUI();
+        StartupTimer.log(getText() + " tab built in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    protected abstract void initializeUI();
+}
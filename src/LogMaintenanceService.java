@@ -0,0 +1,279 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Background housekeeping for the "ip logs" tree and the sample store:
+ *  - sessions from earlier days that stayed small are merged into "archive/<date>.log.gz" per target
+ *  - other closed session files are gzipped in place
+ *  - files older than the retention period are deleted
+ * Files the writers still hold open, or touched within the grace period, are never modified.
+ */
+public class LogMaintenanceService {
+    public static final String ARCHIVE_DIR = "archive";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final long GRACE_MS = TimeUnit.MINUTES.toMillis(10);
+
+    private final SessionLogWriter logWriter;
+    private final SampleStore sampleStore;
+    private final Path logRoot;
+    private final int retentionDays;
+    private final long mergeBelowBytes;
+    private final ScheduledExecutorService executor;
+
+    public LogMaintenanceService(SessionLogWriter logWriter, SampleStore sampleStore, Path logRoot, int retentionDays, long mergeBelowBytes) {
+        this.logWriter = logWriter;
+        this.sampleStore = sampleStore;
+        this.logRoot = logRoot;
+        this.retentionDays = retentionDays;
+        this.mergeBelowBytes = mergeBelowBytes;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-maintenance");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    public static LogMaintenanceService fromConfig(ConfigurationManager configManager, SessionLogWriter logWriter, SampleStore sampleStore) {
+        int retentionDays = configManager.getInt("logRetentionDays", 90);
+        long mergeBelowBytes = configManager.getLong("logMergeBelowBytes", 262144);
+        return new LogMaintenanceService(logWriter, sampleStore, Paths.get(SessionLogWriter.LOG_ROOT), retentionDays, mergeBelowBytes);
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(this::runSafely, 1, 60, TimeUnit.MINUTES);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void runSafely() {
+        try {
+            runOnce();
+        } catch (Exception e) {
+            System.err.println("Log maintenance failed: " + e.getMessage());
+        }
+    }
+
+    public void runOnce() throws IOException {
+        long now = System.currentTimeMillis();
+        if (Files.isDirectory(logRoot)) {
+            for (Path targetDir : listDirectories(logRoot)) {
+                if (retentionDays > 0) {
+                    deleteExpired(targetDir, now);
+                }
+                mergeSmallSessions(targetDir, now);
+                compressClosedFiles(targetDir, now);
+            }
+        }
+        if (sampleStore != null && retentionDays > 0 && Files.isDirectory(sampleStore.getRoot())) {
+            for (Path targetDir : listDirectories(sampleStore.getRoot())) {
+                deleteExpiredSegments(targetDir, now);
+            }
+        }
+    }
+
+    private void mergeSmallSessions(Path targetDir, long now) throws IOException {
+        String today = new SimpleDateFormat("yyyy-MM-dd").format(new Date(now));
+        for (Path sessionDir : listDirectories(targetDir)) {
+            if (sessionDir.getFileName().toString().equals(ARCHIVE_DIR)) {
+                continue;
+            }
+            List<Path> files = listFiles(sessionDir);
+            if (files.isEmpty()) {
+                Files.deleteIfExists(sessionDir);
+                continue;
+            }
+
+            long totalBytes = 0;
+            long newest = 0;
+            boolean closed = true;
+            for (Path file : files) {
+                long modified = Files.getLastModifiedTime(file).toMillis();
+                newest = Math.max(newest, modified);
+                totalBytes += Files.size(file);
+                if (!isClosed(file, modified, now)) {
+                    closed = false;
+                }
+            }
+            String day = new SimpleDateFormat("yyyy-MM-dd").format(new Date(newest));
+            if (!closed || totalBytes >= mergeBelowBytes || day.equals(today)) {
+                continue;
+            }
+
+            // Each session becomes its own gzip member after the ones already in the archive
+            Path archive = targetDir.resolve(ARCHIVE_DIR).resolve(day + ".log.gz");
+            Files.createDirectories(archive.getParent());
+            addGzipMember(archive, out -> {
+                for (Path file : files) {
+                    out.write(("## " + sessionDir.getFileName() + "/" + file.getFileName() + "\n").getBytes(StandardCharsets.UTF_8));
+                    copyDecompressed(file, out);
+                }
+            });
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(sessionDir);
+        }
+    }
+
+    private void compressClosedFiles(Path targetDir, long now) throws IOException {
+        for (Path sessionDir : listDirectories(targetDir)) {
+            if (sessionDir.getFileName().toString().equals(ARCHIVE_DIR)) {
+                continue;
+            }
+            for (Path file : listFiles(sessionDir)) {
+                if (!file.getFileName().toString().endsWith(".txt")
+                        || !isClosed(file, Files.getLastModifiedTime(file).toMillis(), now)) {
+                    continue;
+                }
+                // A session reopened after an earlier pass gets this part as another gzip member
+                addGzipMember(file.resolveSibling(file.getFileName() + ".gz"), out -> Files.copy(file, out));
+                Files.delete(file);
+            }
+        }
+    }
+
+    private void deleteExpired(Path targetDir, long now) throws IOException {
+        long cutoff = now - TimeUnit.DAYS.toMillis(retentionDays);
+        for (Path dir : listDirectories(targetDir)) {
+            for (Path file : listFiles(dir)) {
+                if (Files.getLastModifiedTime(file).toMillis() < cutoff && !logWriter.isOpen(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            if (listFiles(dir).isEmpty() && listDirectories(dir).isEmpty()) {
+                Files.deleteIfExists(dir);
+            }
+        }
+    }
+
+    private void deleteExpiredSegments(Path targetDir, long now) throws IOException {
+        long cutoff = now - TimeUnit.DAYS.toMillis(retentionDays);
+        for (Path file : listFiles(targetDir)) {
+            String name = file.getFileName().toString();
+            if (!name.endsWith(SampleStore.SEGMENT_SUFFIX) || Files.getLastModifiedTime(file).toMillis() >= cutoff || sampleStore.isOpen(file)) {
+                continue;
+            }
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(SampleStore.indexPathFor(file));
+        }
+    }
+
+    private boolean isClosed(Path file, long lastModified, long now) {
+        return now - lastModified > GRACE_MS && !logWriter.isOpen(file);
+    }
+
+    // Builds the new file next to the old one and moves it into place, so a crash leaves either the old or the new
+    // file and never a half-written member. The sources are only deleted by the caller once the move is done.
+    private static void addGzipMember(Path target, MemberWriter writer) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                if (Files.exists(target)) {
+                    Files.copy(target, out);
+                }
+                GZIPOutputStream gzip = new GZIPOutputStream(out);
+                writer.write(gzip);
+                gzip.finish();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private static void copyDecompressed(Path file, OutputStream out) throws IOException {
+        if (file.getFileName().toString().endsWith(".gz")) {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                in.transferTo(out);
+            }
+        } else {
+            Files.copy(file, out);
+        }
+    }
+
+    private static List<Path> listDirectories(Path dir) throws IOException {
+        List<Path> result = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, Files::isDirectory)) {
+            stream.forEach(result::add);
+        }
+        return result;
+    }
+
+    // Session files in write order: "x.txt" before "x.2.txt" before "x.10.txt". Temp files left by a crash are
+    // removed, only this thread writes them.
+    static List<Path> listFiles(Path dir) throws IOException {
+        List<Path> result = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, Files::isRegularFile)) {
+            for (Path file : stream) {
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else {
+                    result.add(file);
+                }
+            }
+        }
+        result.sort(Comparator.comparing((Path file) -> sessionStem(file.getFileName().toString()))
+                .thenComparingInt(file -> partNumber(file.getFileName().toString()))
+                .thenComparing(Comparator.naturalOrder()));
+        return result;
+    }
+
+    // "x.txt", "x.txt.gz", "x.3.txt" and "x.3.txt.gz" all belong to session "x"
+    private static String sessionStem(String name) {
+        String stem = stripExtensions(name);
+        return partNumber(name) > 1 ? stem.substring(0, stem.lastIndexOf('.')) : stem;
+    }
+
+    // The number SessionLogWriter.partPath gave the file, 1 for the session's own name
+    static int partNumber(String name) {
+        String stem = stripExtensions(name);
+        int dot = stem.lastIndexOf('.');
+        if (dot < 0 || dot == stem.length() - 1) {
+            return 1;
+        }
+        for (int i = dot + 1; i < stem.length(); i++) {
+            if (stem.charAt(i) < '0' || stem.charAt(i) > '9') {
+                return 1;
+            }
+        }
+        try {
+            return Integer.parseInt(stem.substring(dot + 1));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    private static String stripExtensions(String name) {
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private interface MemberWriter {
+        void write(OutputStream out) throws IOException;
+    }
+}
@@ -10,48 +10,69 @@ import javafx.scene.paint.Color;
 import java.io.*;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
-public class MainTab extends Tab implements PresetUpdateListener {
+public class MainTab extends Tab implements PresetStore.Listener {
 
-    private PresetUpdateListener presetUpdateListener;
-    private ExecutorService executorService = Executors.newCachedThreadPool();
-    private Map<Integer, Process> activePings = new HashMap<>();
+    private Map<Integer, PingProcess> activePings = new ConcurrentHashMap<>();
+    private Map<Integer, ProbeSession> activeSessions = new ConcurrentHashMap<>();
 
     private VBox mainLayout = new VBox(10);
     private GridPane pingAreasGrid = new GridPane();
     private ChoiceBox<Integer> boxChoiceBox;
     private TextField intervalField, amountOfPingsField, presetNameField;
     private ComboBox<String> presetComboBox;
+    private CheckBox adaptiveCheckBox;
     private ConfigurationManager configManager;
-
-    public MainTab(ConfigurationManager configManager, PresetUpdateListener listener) {
+    private PresetStore presetStore;
+    private SessionLogWriter logWriter;
+    private SampleStore sampleStore;
+    private UiUpdateCoalescer uiUpdates;
+    private SessionExecutor sessionExecutor;
+    private MetricsRegistry metrics;
+    private AlertEngine alertEngine;
+
+    public MainTab(ConfigurationManager configManager, SessionLogWriter logWriter, SampleStore sampleStore, UiUpdateCoalescer uiUpdates, SessionExecutor sessionExecutor, MetricsRegistry metrics, PresetStore presetStore, AlertEngine alertEngine) {
         super("Main");
         this.configManager = configManager;
-        this.presetUpdateListener = listener;
+        this.logWriter = logWriter;
+        this.sampleStore = sampleStore;
+        this.uiUpdates = uiUpdates;
+        this.sessionExecutor = sessionExecutor;
+        this.metrics = metrics;
+        this.presetStore = presetStore;
+        this.alertEngine = alertEngine;
         setClosable(false);
         initializeUI();
+        presetStore.addListener(this);
         loadPresets();
     }
 
-    public void setPresetUpdateListener(PresetUpdateListener listener) {
-        this.presetUpdateListener = listener;
-    }
-
     @Override
-    public void onPresetUpdate() {
-        loadPresets();
+    public void presetSaved(PresetStore.Preset preset, boolean added) {
+        if (added) {
+            Platform.runLater(() -> {
+                List<String> items = presetComboBox.getItems();
+                int index = Collections.binarySearch(items, preset.getName());
+                if (index < 0) {
+                    items.add(-index - 1, preset.getName());
+                }
+            });
+        }
     }
 
     @Override
-    public void onMainTabUpdate() {
-        // Placeholder for potential future use
+    public void presetRemoved(String name) {
+        Platform.runLater(() -> presetComboBox.getItems().remove(name));
     }
 
     private void initializeUI() {
@@ -79,7 +100,8 @@ public class MainTab extends Tab implements PresetUpdateListener {
         boxChoiceBox.setOnAction(event -> updatePingBoxes(boxChoiceBox.getValue()));
         boxSelectionContainer.getChildren().addAll(boxLabel, boxChoiceBox);
 
-        HBox pingIntervalContainer = new HBox(10, new Label("Ping Interval (ms): "), intervalField);
+        adaptiveCheckBox = new CheckBox("Back off while unreachable");
+        HBox pingIntervalContainer = new HBox(10, new Label("Ping Interval (ms): "), intervalField, adaptiveCheckBox);
         pingIntervalContainer.setAlignment(Pos.CENTER_LEFT);
 
         HBox amountOfPingsContainer = new HBox(10, new Label("Amount of Pings: "), amountOfPingsField);
@@ -149,109 +171,46 @@ public class MainTab extends Tab implements PresetUpdateListener {
         HBox buttonBox = new HBox(10, pingButton, stopButton);
         buttonBox.setAlignment(Pos.CENTER);
         Label infoLabel = new Label("Success: 0 | Failed: 0 | Data: -");
-        TextArea outputTextArea = new TextArea();
-        outputTextArea.setEditable(false);
-        outputTextArea.setWrapText(true);
+        infoLabel.setWrapText(true);
+        PingOutputView outputView = new PingOutputView(getOutputCapacity());
+        RttSparkline sparkline = new RttSparkline();
 
-        pingButton.setOnAction(event -> startPing(ipField.getText(), outputTextArea, infoLabel, pingButton, stopButton, index));
+        pingButton.setOnAction(event -> startPing(ipField.getText(), outputView, sparkline, infoLabel, pingButton, stopButton, index, -1));
         stopButton.setOnAction(event -> stopPing(index));
 
-        pingArea.getChildren().addAll(titleLabel, ipField, buttonBox, infoLabel, outputTextArea);
+        pingArea.getChildren().addAll(titleLabel, ipField, buttonBox, infoLabel, outputView, sparkline);
         return pingArea;
     }
 
-    private void startPing2(String ipAddress, TextArea outputTextArea, Label infoLabel, Button pingButton, Button stopButton, int index) {
-        pingButton.setDisable(true);
-        stopButton.setDisable(false);
-
-        int amountOfPings;
-        try {
-            amountOfPings = Integer.parseInt(amountOfPingsField.getText().trim());
-            if (amountOfPings <= 0) {
-                throw new NumberFormatException();
-            }
-        } catch (NumberFormatException e) {
-            amountOfPings = isWindows() ? Integer.MAX_VALUE : 4; // Default to continuous ping for Windows, 4 pings for others
-        }
-        final int[] successCount = {0};
-        final int[] failureCount = {0};
-        final long[] maxTime = {Long.MIN_VALUE};
-        final long[] minTime = {Long.MAX_VALUE};
-        final long[] totalTime = {0};
-
-        int finalAmountOfPings = amountOfPings;
-        executorService.submit(() -> {
-            Process process = null;
-            try {
-                ProcessBuilder builder = new ProcessBuilder(isWindows() ? "ping" : "ping", isWindows() ? "-n" : "-c", String.valueOf(finalAmountOfPings), ipAddress);
-                process = builder.start();
-                activePings.put(index, process);
-
-                BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    String finalLine = line;
-                    Platform.runLater(() -> outputTextArea.appendText(finalLine + "\n"));
-                        successCount[0]++;
-                        long time = Long.parseLong(line.replaceAll(".*time=(\\d+).*", "$1"));
-                        totalTime[0] += time;
-                        if (time > maxTime[0]) maxTime[0] = time;
-                        if (time < minTime[0]) minTime[0] = time;
-                        long avgTime = totalTime[0] / successCount[0];
-                        Platform.runLater(() -> {
-                            infoLabel.setStyle("-fx-text-fill: green;");
-                            infoLabel.setText("Success: " + successCount[0] + " | Failed: " + failureCount[0] + " | Data: Max: " + maxTime[0] + "ms. Min: " + minTime[0] + "ms. AVG: " + avgTime + "ms.");
-                        });
-                }
-                reader.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-
-            Platform.runLater(() -> {
-                pingButton.setDisable(false);
-                stopButton.setDisable(true);
-            });
-            activePings.remove(index);
-        });
-    }
-
-    private String getCssColor(String configKey, String defaultColor) {
-        String colorValue = configManager.getProperty(configKey, defaultColor);
+    // Parsed once per colour change rather than on every reply
+    private static final Function<String, String> CSS_TEXT_COLOR = colorValue -> {
         Color fxColor = Color.valueOf(colorValue);
         return String.format("-fx-text-fill: rgba(%d, %d, %d, %.2f);",
                 (int) (fxColor.getRed() * 255),
                 (int) (fxColor.getGreen() * 255),
                 (int) (fxColor.getBlue() * 255),
                 fxColor.getOpacity());
-    }
-
-    private void logPingResult(String ipAddress, String pingResult, String date, String sessionFileName) {
-        String folderName = ipAddress.replaceAll("[^a-zA-Z0-9.-]", "_"); // Sanitize IP address for use in file paths
-
-        // Creating a "ip logs" directory and then a subdirectory for the specific IP
-        File ipLogsDir = new File("ip logs");
-        if (!ipLogsDir.exists()) {
-            ipLogsDir.mkdir(); // Create "ip logs" directory if it doesn't exist
-        }
+    };
+    private static final Function<String, String> CSS_BACKGROUND_COLOR =
+            colorValue -> "-fx-control-inner-background:" + CSS_TEXT_COLOR.apply(colorValue).replace("-fx-text-fill:", "") + ";";
 
-        File dir = new File(ipLogsDir, folderName + File.separator + date);
-        if (!dir.exists()) {
-            dir.mkdirs(); // Create the directory for the IP and date if it doesn't exist
-        }
+    private String getCssColor(String configKey, String defaultColor) {
+        return configManager.getValue(configKey, defaultColor, CSS_TEXT_COLOR);
+    }
 
-        File logFile = new File(dir, sessionFileName); // Use the session-specific file name
+    private String getCssBackgroundColor(String configKey, String defaultColor) {
+        return configManager.getValue(configKey, defaultColor, CSS_BACKGROUND_COLOR);
+    }
 
-        try (FileWriter writer = new FileWriter(logFile, true)) {
-            writer.write(date + ": "+ pingResult + "\n");
-        } catch (IOException e) {
-            System.err.println("Error writing to log file: " + e.getMessage());
-        }
+    private void logPingResult(String ipAddress, String pingResult, String date, String sessionFileName) {
+        // Queued for the log writer thread, nothing touches the disk here
+        logWriter.append(ipAddress, date, sessionFileName, pingResult);
     }
 
 
 
-    private void startPing(String ipAddress, TextArea outputTextArea, Label infoLabel, Button pingButton, Button stopButton, int index) {
+    // A start delay of -1 lets the scheduler pick the session's phase
+    private void startPing(String ipAddress, PingOutputView outputView, RttSparkline sparkline, Label infoLabel, Button pingButton, Button stopButton, int index, long startDelayMillis) {
         pingButton.setDisable(true);
         stopButton.setDisable(false);
 
@@ -272,57 +231,100 @@ public class MainTab extends Tab implements PresetUpdateListener {
         } catch (NumberFormatException e) {
             amountOfPings = isWindows() ? Integer.MAX_VALUE : 4; // Default to continuous ping for Windows, 4 pings for others
         }
-        final int[] successCount = {0};
-        final int[] failureCount = {0};
-        final long[] maxTime = {Long.MIN_VALUE};
-        final long[] minTime = {Long.MAX_VALUE};
-        final long[] totalTime = {0};
+        LatencyStats stats = new LatencyStats();
+
+        sparkline.setColors(configManager.getValue("reachableColor", "GREEN", Color::valueOf),
+                configManager.getValue("unreachableColor", "RED", Color::valueOf));
+        sparkline.clear();
+        PingAreaState areaState = new PingAreaState(uiUpdates, outputView, infoLabel, sparkline);
+        MetricsRegistry.TargetMetrics targetMetrics = metrics.target(ipAddress);
+        AdaptiveInterval adaptive = adaptiveCheckBox.isSelected() ? AdaptiveInterval.fromConfig(configManager, parseInterval()) : null;
+        // Results from parsed ping output and from probe sessions go to the same sinks
+        Consumer<ProbeResult> resultHandler = result -> {
+            long now = System.currentTimeMillis();
+            sampleStore.append(ipAddress, now, result);
+            alertEngine.record(ipAddress, result, now);
+            stats.record(result, now);
+            targetMetrics.record(result, now);
+            String status = "Success: " + stats.getReceived() + " | Failed: " + stats.getLost() + " | " + stats.formatSummary(now) + describeInterval(adaptive);
+            if (result.isSuccess()) {
+                areaState.addRtt((int) Math.min(Integer.MAX_VALUE, result.getRttMicros()));
+                areaState.setStatus(status, getCssColor("reachableColor", "GREEN"), getCssBackgroundColor("reachableColor", "GREEN"));
+            } else {
+                areaState.addRtt(RttSparkline.LOSS);
+                areaState.setStatus(status, getCssColor("unreachableColor", "RED"), getCssBackgroundColor("unreachableColor", "RED"));
+            }
+        };
+        PingOutputParser parser = new PingOutputParser(); // One process reports one line at a time, so one parser is enough
+        Consumer<String> lineHandler = line -> {
+            logPingResult(ipAddress, line, dateTime, sessionFileName);
+            areaState.appendOutput(line);
+            if (parser.parse(line) != PingOutputParser.NONE) {
+                resultHandler.accept(parser.toProbeResult());
+            }
+        };
+        Runnable onFinished = () -> {
+            logWriter.closeSession(ipAddress, dateTime, sessionFileName);
+            Platform.runLater(() -> {
+                pingButton.setDisable(false);
+                stopButton.setDisable(true);
+            });
+        };
+
+        ProbeEngine engine = ProbeEngines.fromConfig(configManager);
+        if (!(engine instanceof ProcessProbeEngine) || adaptive != null || sessionExecutor.getRateLimiter().isEnabled()) {
+            // In-process engines, adaptive intervals and rate limits run as probe sessions instead of one child ping
+            // process, which would send on its own schedule
+            ProbeSession session = new ProbeSession(ipAddress, engine, parseInterval(), amountOfPings,
+                    ProbeEngines.getTimeoutMillis(configManager), new ProbeSession.Listener() {
+                @Override
+                public void onResult(ProbeResult result) {
+                    // The text is only for the log and the output view, the result itself keeps the exact RTT
+                    String line = result.toOutputLine(ipAddress);
+                    logPingResult(ipAddress, line, dateTime, sessionFileName);
+                    areaState.appendOutput(line);
+                    resultHandler.accept(result);
+                }
+
+                @Override
+                public void onFinished() {
+                    activeSessions.remove(index);
+                    onFinished.run();
+                }
+            });
+            session.setAdaptiveInterval(adaptive);
+            session.setStartDelayMillis(startDelayMillis);
+            activeSessions.put(index, session);
+            sessionExecutor.start(session);
+            return;
+        }
 
         int finalAmountOfPings = amountOfPings;
-        executorService.submit(() -> {
-            Process process = null;
+        // Registered before the start delay, so stopping during the stagger keeps the process from starting at all
+        PingProcess ping = new PingProcess();
+        activePings.put(index, ping);
+        sessionExecutor.execute(() -> {
+            ping.thread = Thread.currentThread();
             try {
-                ProcessBuilder builder = new ProcessBuilder("ping", isWindows() ? "-n" : "-c", String.valueOf(finalAmountOfPings), ipAddress);
-                process = builder.start();
-                activePings.put(index, process);
+                if (startDelayMillis > 0 && !ping.stopped) {
+                    Thread.sleep(startDelayMillis);
+                }
+                List<String> command = new ArrayList<>(List.of("ping", isWindows() ? "-n" : "-c", String.valueOf(finalAmountOfPings)));
+                if (StreamingPingProcess.flavor() == StreamingPingProcess.Flavor.IPUTILS) {
+                    // Without -O iputils prints nothing for a missed reply, so timeouts never reached the loss stats
+                    command.add("-O");
+                }
+                command.add(HostResolver.getDefault().getCachedText(ipAddress));
+                ProcessBuilder builder = new ProcessBuilder(command);
+                if (!ping.start(builder)) {
+                    return;
+                }
+                Process process = ping.process;
 
                 BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
                 String line;
                 while ((line = reader.readLine()) != null && !Thread.currentThread().isInterrupted()) {
-                    String finalLine = line;
-                    Platform.runLater(() -> {
-                        outputTextArea.appendText(finalLine + "\n");
-                        logPingResult(ipAddress, finalLine, dateTime, sessionFileName);
-                    });
-                    SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy hh:mm:ss a");
-                    String timestamp = sdf.format(new Date());
-
-
-                    //System.out.println(timestamp + ": IP "+ ipAddress +" - Ping Output: " + finalLine);
-                    //logPingResult(ipAddress, timestamp + ": IP "+ ipAddress +" - Ping Output: " + finalLine);
-
-                    if (line.contains("time=")) {
-                        successCount[0]++;
-                        long time = Long.parseLong(line.replaceAll(".*time=(\\d+).*", "$1"));
-                        totalTime[0] += time;
-                        if (time > maxTime[0]) maxTime[0] = time;
-                        if (time < minTime[0]) minTime[0] = time;
-                        long avgTime = totalTime[0] / successCount[0];
-                        Platform.runLater(() -> {
-                            String successColor = getCssColor("reachableColor", "GREEN");
-                            infoLabel.setStyle(successColor);
-                            outputTextArea.setStyle("-fx-control-inner-background:" + successColor.replace("-fx-text-fill:", "") + ";");
-                            infoLabel.setText("Success: " + successCount[0] + " | Failed: " + failureCount[0] + " | Data: Max: " + maxTime[0] + "ms. Min: " + minTime[0] + "ms. AVG: " + avgTime + "ms.");
-                        });
-                    } else if (line.contains("Request timed out") || line.contains("Destination host unreachable")) {
-                        failureCount[0]++;
-                        Platform.runLater(() -> {
-                            String failureColor = getCssColor("unreachableColor", "RED");
-                            infoLabel.setStyle(failureColor);
-                            outputTextArea.setStyle("-fx-control-inner-background:" + failureColor.replace("-fx-text-fill:", "") + ";");
-                            infoLabel.setText("Success: " + successCount[0] + " | Failed: " + failureCount[0] + " | Data: -");
-                        });
-                    }
+                    lineHandler.accept(line);
                 }
                 int exitValue = process.waitFor(); // Wait for the process to complete
                 if (exitValue != 0) {
@@ -333,46 +335,98 @@ public class MainTab extends Tab implements PresetUpdateListener {
                 System.err.println("Error during the ping process: " + e.getMessage());
                 e.printStackTrace();
             } catch (InterruptedException e) {
-                System.err.println("Ping process was interrupted: " + e.getMessage());
+                if (!ping.stopped) {
+                    System.err.println("Ping process was interrupted: " + e.getMessage());
+                }
                 Thread.currentThread().interrupt();
             } finally {
-                Platform.runLater(() -> {
-                    pingButton.setDisable(false);
-                    stopButton.setDisable(true);
-                });
-                activePings.remove(index);
+                ping.thread = null;
+                onFinished.run();
+                activePings.remove(index, ping);
             }
         });
     }
 
+    // A ping process run, from before its start delay until the process exits
+    private static final class PingProcess {
+        volatile boolean stopped;
+        volatile Process process;
+        volatile Thread thread;
+
+        // Starts the process unless the run was stopped first; false means there is nothing to read
+        synchronized boolean start(ProcessBuilder builder) throws IOException {
+            if (stopped) {
+                return false;
+            }
+            process = builder.start();
+            return true;
+        }
+
+        synchronized void stop() {
+            stopped = true;
+            if (process != null) {
+                process.destroy();
+            } else if (thread != null) {
+                // Still in the start delay
+                thread.interrupt();
+            }
+        }
+    }
+
+    private static String describeInterval(AdaptiveInterval adaptive) {
+        return adaptive != null ? " | Every " + adaptive.describe() : "";
+    }
+
+    // Only the newest lines stay on screen, the full history is in the session log
+    private int getOutputCapacity() {
+        int capacity = configManager.getInt("outputBufferLines", PingOutputView.DEFAULT_CAPACITY);
+        return capacity > 0 ? capacity : PingOutputView.DEFAULT_CAPACITY;
+    }
+
+    private int parseInterval() {
+        int interval = ConfigurationManager.parseInt(intervalField.getText(), 500);
+        return interval > 0 ? interval : 500;
+    }
+
     private void stopPing(int index) {
-        Process process = activePings.get(index);
-        if (process != null) {
-            //System.out.println("Stopping ping process for index: " + index);
-            process.destroy();
-            activePings.remove(index);
+        ProbeSession session = activeSessions.remove(index);
+        if (session != null) {
+            session.stop();
+            return;
+        }
+        PingProcess ping = activePings.remove(index);
+        if (ping != null) {
+            ping.stop();
         } else {
             System.err.println("No ping process found to stop for index: " + index);
         }
     }
 
 
+    // The boxes start evenly spread over one interval instead of all in the same instant
     private void pingAll() {
         int index = 0;
+        long boxes = pingAreasGrid.getChildren().stream().filter(node -> node instanceof VBox).count();
+        int interval = parseInterval();
         for (Node node : pingAreasGrid.getChildren()) {
             if (node instanceof VBox) {
                 VBox vbox = (VBox) node;
                 TextField ipField = (TextField) vbox.getChildren().get(1);
-                TextArea outputTextArea = (TextArea) vbox.getChildren().get(4);
+                PingOutputView outputView = (PingOutputView) vbox.getChildren().get(4);
+                RttSparkline sparkline = (RttSparkline) vbox.getChildren().get(5);
                 Label infoLabel = (Label) vbox.getChildren().get(3);
                 Button pingButton = (Button) ((HBox) vbox.getChildren().get(2)).getChildren().get(0);
                 Button stopButton = (Button) ((HBox) vbox.getChildren().get(2)).getChildren().get(1);
-                startPing(ipField.getText(), outputTextArea, infoLabel, pingButton, stopButton, ++index);
+                long startDelay = index * interval / Math.max(1, boxes);
+                startPing(ipField.getText(), outputView, sparkline, infoLabel, pingButton, stopButton, ++index, startDelay);
             }
         }
     }
 
     private void stopAll() {
+        for (Integer index : new ArrayList<>(activeSessions.keySet())) {
+            stopPing(index);
+        }
         for (Integer index : new ArrayList<>(activePings.keySet())) {
             stopPing(index);
         }
@@ -385,65 +439,48 @@ public class MainTab extends Tab implements PresetUpdateListener {
             return;
         }
 
-        String encodedPresetName = "preset_" + presetName.replace(" ", "\\ ");
-
-        StringBuilder sb = new StringBuilder();
-        sb.append(boxChoiceBox.getValue()).append(";");
-        sb.append(intervalField.getText().trim()).append(";");
-        sb.append(amountOfPingsField.getText().trim()).append(";");
-
+        List<String> hosts = new ArrayList<>();
         for (Node node : pingAreasGrid.getChildren()) {
             if (node instanceof VBox) {
                 TextField ipField = (TextField) ((VBox) node).getChildren().get(1);
-                sb.append(ipField.getText().trim()).append(",");
+                hosts.add(ipField.getText().trim());
             }
         }
 
-        if (sb.length() > 0 && sb.charAt(sb.length() - 1) == ',') {
-            sb.deleteCharAt(sb.length() - 1);
-        }
-
-        configManager.setProperty(encodedPresetName, sb.toString());
-        configManager.saveProperties();
-
-        presetComboBox.getItems().add(presetName);
+        // The store reports the new name back through presetSaved, which keeps the combo box sorted
+        presetStore.save(new PresetStore.Preset(presetName, boxChoiceBox.getValue(), parseOrZero(intervalField.getText()), parseOrZero(amountOfPingsField.getText()),
+                adaptiveCheckBox.isSelected(), hosts));
+    }
 
-        if (presetUpdateListener != null) {
-            presetUpdateListener.onMainTabUpdate();
-        }
+    private static int parseOrZero(String value) {
+        return Math.max(0, ConfigurationManager.parseInt(value, 0));
     }
 
+    // The names are collected off the FX thread so a long preset list doesn't delay the first frame
     private void loadPresets() {
-        presetComboBox.getItems().clear();
-        configManager.getKeys().stream()
-                .filter(key -> key.startsWith("preset_"))
-                .forEach(key -> presetComboBox.getItems().add(key.substring(7).replace("\\ ", " ")));
+        CompletableFuture.supplyAsync(presetStore::getNames)
+                .thenAccept(names -> Platform.runLater(() -> presetComboBox.getItems().setAll(names)));
     }
 
     private void loadPreset(String presetName) {
-        String encodedPresetName = "preset_" + presetName.replace(" ", "\\ ");
-        String presetData = configManager.getProperty(encodedPresetName, "");
-        if (presetData.isEmpty()) {
-            return;
-        }
-
-        String[] parts = presetData.split(";");
-        if (parts.length < 3) {
+        PresetStore.Preset preset = presetName == null ? null : presetStore.get(presetName);
+        if (preset == null) {
             return;
         }
 
-        boxChoiceBox.setValue(Integer.parseInt(parts[0]));
-        updatePingBoxes(Integer.parseInt(parts[0]));
-        intervalField.setText(parts[1]);
-        amountOfPingsField.setText(parts[2]);
+        boxChoiceBox.setValue(preset.getBoxes());
+        updatePingBoxes(preset.getBoxes());
+        intervalField.setText(preset.getIntervalMillis() > 0 ? String.valueOf(preset.getIntervalMillis()) : "");
+        amountOfPingsField.setText(preset.getCount() > 0 ? String.valueOf(preset.getCount()) : "");
+        adaptiveCheckBox.setSelected(preset.isAdaptive());
 
-        String[] ips = parts.length > 3 ? parts[3].split(",") : new String[0];
+        List<String> ips = preset.getHosts();
         int index = 0;
         for (Node node : pingAreasGrid.getChildren()) {
-            if (node instanceof VBox && index < ips.length) {
+            if (node instanceof VBox && index < ips.size()) {
                 VBox vbox = (VBox) node;
                 TextField ipField = (TextField) vbox.getChildren().get(1);
-                ipField.setText(ips[index++]);
+                ipField.setText(ips.get(index++));
             }
         }
     }
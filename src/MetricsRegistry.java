@@ -0,0 +1,323 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Live per-target probe counters for the metrics endpoint, rendered in the OpenMetrics text format.
+// Each target keeps its rendered lines as bytes and only re-renders after it recorded something, so a scrape of
+// idle targets just streams cached arrays. Probe threads and the scrape only meet on one short per-target lock.
+public class MetricsRegistry {
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    // Histogram bucket bounds, kept coarse so a scrape of many targets stays small
+    private static final long[] BUCKET_MICROS = {500, 1_000, 2_000, 5_000, 10_000, 20_000, 50_000, 100_000, 200_000, 500_000, 1_000_000, 2_000_000, 5_000_000};
+
+    private static final int SENT = 0;
+    private static final int RECEIVED = 1;
+    private static final int LOST = 2;
+    private static final int RTT = 3;
+    private static final int LAST_SEEN = 4;
+    private static final byte[][] FAMILY_HEADERS = {
+            ascii("# TYPE pingpanel_probes_sent counter\n# HELP pingpanel_probes_sent Probes sent per target.\n"),
+            ascii("# TYPE pingpanel_probes_received counter\n# HELP pingpanel_probes_received Probes answered per target.\n"),
+            ascii("# TYPE pingpanel_probes_lost counter\n# HELP pingpanel_probes_lost Probes without a reply per target.\n"),
+            ascii("# TYPE pingpanel_rtt_seconds histogram\n# UNIT pingpanel_rtt_seconds seconds\n# HELP pingpanel_rtt_seconds Round-trip time of answered probes.\n"),
+            ascii("# TYPE pingpanel_last_seen_timestamp_seconds gauge\n# HELP pingpanel_last_seen_timestamp_seconds Time of the last reply.\n")};
+    private static final byte[] EOF = ascii("# EOF\n");
+
+    private final Map<String, TargetMetrics> targets = new ConcurrentHashMap<>();
+    // Everything below is only touched by the scrape, under this
+    private final List<TargetMetrics> renderOrder = new ArrayList<>();
+    private final List<String> extraNames = new ArrayList<>();
+    private final List<String> extraTypes = new ArrayList<>();
+    private final List<LongSupplier> extraValues = new ArrayList<>();
+    private final ByteSink scratch = new ByteSink(4096);
+    private byte[] extraLines = new byte[0];
+
+    // The same target probed from several places shares one set of counters
+    public TargetMetrics target(String target) {
+        return targets.computeIfAbsent(target, TargetMetrics::new);
+    }
+
+    // Process-wide value such as a scheduler counter, read on every scrape; type is "counter" or "gauge"
+    public synchronized void addValue(String name, String type, LongSupplier value) {
+        extraNames.add(name);
+        extraTypes.add(type);
+        extraValues.add(value);
+    }
+
+    // The service counters both the window and the headless monitor export, so their scrapes stay alike
+    public void registerProcessMetrics(ProbeScheduler probeScheduler, SessionLogWriter logWriter, SampleStore sampleStore,
+                                 HostResolver resolver, ProbeRateLimiter rateLimiter, AlertEngine alertEngine) {
+        addValue("pingpanel_scheduler_dispatched_probes", "counter", probeScheduler::getDispatchedProbes);
+        addValue("pingpanel_scheduler_skipped_probes", "counter", probeScheduler::getSkippedProbes);
+        addValue("pingpanel_scheduler_worker_threads", "gauge", probeScheduler::getWorkerThreads);
+        addValue("pingpanel_log_dropped_records", "counter", logWriter::getDroppedRecords);
+        addValue("pingpanel_store_dropped_samples", "counter", sampleStore::getDroppedSamples);
+        addValue("pingpanel_dns_lookups", "counter", resolver::getLookups);
+        addValue("pingpanel_dns_lookup_failures", "counter", resolver::getFailures);
+        addValue("pingpanel_dns_lookup_microseconds", "counter", resolver::getLookupMicros);
+        addValue("pingpanel_dns_lookup_max_microseconds", "gauge", resolver::getMaxLookupMicros);
+        addValue("pingpanel_rate_limited_probes", "counter", rateLimiter::getDelayedProbes);
+        addValue("pingpanel_rate_limit_wait_microseconds", "counter", rateLimiter::getWaitMicros);
+        addValue("pingpanel_alerts_fired", "counter", alertEngine::getFiredAlerts);
+        addValue("pingpanel_alerts_suppressed", "counter", alertEngine::getSuppressedAlerts);
+        addValue("pingpanel_alerts_firing", "gauge", alertEngine::getFiringAlerts);
+        addValue("pingpanel_alert_actions_dropped", "counter", alertEngine::getDroppedActions);
+        addValue("pingpanel_alert_actions_failed", "counter", alertEngine::getFailedActions);
+    }
+
+    public int getTargetCount() {
+        return targets.size();
+    }
+
+    // Re-renders what changed since the last scrape and returns the body length. Hold the registry's lock
+    // across prepare() and writeTo() so both see the same targets.
+    public synchronized int prepare() {
+        if (renderOrder.size() != targets.size()) {
+            for (TargetMetrics metrics : targets.values()) {
+                if (!metrics.listed) {
+                    metrics.listed = true;
+                    renderOrder.add(metrics);
+                }
+            }
+        }
+
+        int length = EOF.length;
+        for (byte[] header : FAMILY_HEADERS) {
+            length += header.length;
+        }
+        for (TargetMetrics metrics : renderOrder) {
+            metrics.refresh(scratch);
+            for (byte[] lines : metrics.rendered) {
+                length += lines.length;
+            }
+        }
+
+        scratch.reset();
+        for (int i = 0; i < extraNames.size(); i++) {
+            String name = extraNames.get(i);
+            boolean counter = "counter".equals(extraTypes.get(i));
+            scratch.write(ascii("# TYPE " + name + " " + extraTypes.get(i) + "\n" + name + (counter ? "_total " : " ")));
+            scratch.writeLong(extraValues.get(i).getAsLong());
+            scratch.write('\n');
+        }
+        extraLines = scratch.toArray();
+        return length + extraLines.length;
+    }
+
+    public synchronized void writeTo(OutputStream out) throws IOException {
+        for (int family = 0; family < FAMILY_HEADERS.length; family++) {
+            out.write(FAMILY_HEADERS[family]);
+            for (TargetMetrics metrics : renderOrder) {
+                out.write(metrics.rendered[family]);
+            }
+        }
+        out.write(extraLines);
+        out.write(EOF);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static class TargetMetrics {
+        private long sent;
+        private long received;
+        private long lost;
+        private long rttSumMicros;
+        private final long[] buckets = new long[BUCKET_MICROS.length + 1];
+        private long lastSeenMillis;
+        private long version;
+
+        // Only touched by the scrape, under the registry lock
+        private boolean listed;
+        private long renderedVersion = -1;
+        private final long[] bucketCopy = new long[BUCKET_MICROS.length + 1];
+        private final byte[][] rendered = {new byte[0], new byte[0], new byte[0], new byte[0], new byte[0]};
+        // Everything up to the value of each line, built once per target
+        private final byte[] sentPrefix;
+        private final byte[] receivedPrefix;
+        private final byte[] lostPrefix;
+        private final byte[][] bucketPrefixes = new byte[BUCKET_MICROS.length + 1][];
+        private final byte[] countPrefix;
+        private final byte[] sumPrefix;
+        private final byte[] lastSeenPrefix;
+
+        TargetMetrics(String target) {
+            String labels = "{target=\"" + target.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+            sentPrefix = ascii("pingpanel_probes_sent_total" + labels + "} ");
+            receivedPrefix = ascii("pingpanel_probes_received_total" + labels + "} ");
+            lostPrefix = ascii("pingpanel_probes_lost_total" + labels + "} ");
+            for (int i = 0; i <= BUCKET_MICROS.length; i++) {
+                String bound;
+                if (i < BUCKET_MICROS.length) {
+                    ByteSink label = new ByteSink(16);
+                    label.writeFixed(BUCKET_MICROS[i], 6);
+                    bound = new String(label.toArray(), StandardCharsets.US_ASCII);
+                } else {
+                    bound = "+Inf";
+                }
+                bucketPrefixes[i] = ascii("pingpanel_rtt_seconds_bucket" + labels + ",le=\"" + bound + "\"} ");
+            }
+            countPrefix = ascii("pingpanel_rtt_seconds_count" + labels + "} ");
+            sumPrefix = ascii("pingpanel_rtt_seconds_sum" + labels + "} ");
+            lastSeenPrefix = ascii("pingpanel_last_seen_timestamp_seconds" + labels + "} ");
+        }
+
+        public synchronized void recordReply(long rttMicros, long nowMillis) {
+            sent++;
+            received++;
+            rttSumMicros += rttMicros;
+            int bucket = 0;
+            while (bucket < BUCKET_MICROS.length && rttMicros > BUCKET_MICROS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket]++;
+            lastSeenMillis = nowMillis;
+            version++;
+        }
+
+        public synchronized void recordLoss() {
+            sent++;
+            lost++;
+            version++;
+        }
+
+        public void record(ProbeResult result, long nowMillis) {
+            if (result.isSuccess()) {
+                recordReply(result.getRttMicros(), nowMillis);
+            } else {
+                recordLoss();
+            }
+        }
+
+        private void refresh(ByteSink out) {
+            long sentCopy;
+            long receivedCopy;
+            long lostCopy;
+            long sumCopy;
+            long lastSeenCopy;
+            synchronized (this) {
+                if (version == renderedVersion) {
+                    return;
+                }
+                renderedVersion = version;
+                sentCopy = sent;
+                receivedCopy = received;
+                lostCopy = lost;
+                sumCopy = rttSumMicros;
+                lastSeenCopy = lastSeenMillis;
+                System.arraycopy(buckets, 0, bucketCopy, 0, buckets.length);
+            }
+
+            rendered[SENT] = line(out, sentPrefix, sentCopy);
+            rendered[RECEIVED] = line(out, receivedPrefix, receivedCopy);
+            rendered[LOST] = line(out, lostPrefix, lostCopy);
+
+            out.reset();
+            long cumulative = 0;
+            for (int i = 0; i < bucketCopy.length; i++) {
+                cumulative += bucketCopy[i];
+                out.write(bucketPrefixes[i]);
+                out.writeLong(cumulative);
+                out.write('\n');
+            }
+            out.write(countPrefix);
+            out.writeLong(cumulative);
+            out.write('\n');
+            out.write(sumPrefix);
+            out.writeFixed(sumCopy, 6);
+            out.write('\n');
+            rendered[RTT] = out.toArray();
+
+            if (lastSeenCopy > 0) {
+                out.reset();
+                out.write(lastSeenPrefix);
+                out.writeFixed(lastSeenCopy, 3);
+                out.write('\n');
+                rendered[LAST_SEEN] = out.toArray();
+            }
+        }
+
+        private static byte[] line(ByteSink out, byte[] prefix, long value) {
+            out.reset();
+            out.write(prefix);
+            out.writeLong(value);
+            out.write('\n');
+            return out.toArray();
+        }
+    }
+
+    // Growable ASCII buffer that formats numbers without going through String
+    private static final class ByteSink {
+        private byte[] data;
+        private int size;
+        private final byte[] digits = new byte[20];
+
+        ByteSink(int capacity) {
+            data = new byte[capacity];
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        void write(int b) {
+            ensure(1);
+            data[size++] = (byte) b;
+        }
+
+        void write(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void writeLong(long value) {
+            if (value < 0) {
+                write('-');
+                value = -value;
+            }
+            int count = 0;
+            do {
+                digits[count++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            ensure(count);
+            while (count > 0) {
+                data[size++] = digits[--count];
+            }
+        }
+
+        // value / 10^decimals with exactly that many decimals, e.g. 1500 with 6 decimals is 0.001500
+        void writeFixed(long value, int decimals) {
+            long scale = 1;
+            for (int i = 0; i < decimals; i++) {
+                scale *= 10;
+            }
+            writeLong(value / scale);
+            write('.');
+            long fraction = value % scale;
+            for (long limit = scale / 10; limit > 1 && fraction < limit; limit /= 10) {
+                write('0');
+            }
+            writeLong(fraction);
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+            }
+        }
+    }
+}
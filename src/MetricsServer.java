@@ -0,0 +1,68 @@
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Optional scrape endpoint at http://<metricsBindAddress>:<metricsPort>/metrics, off unless metricsPort is set
+public class MetricsServer {
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public MetricsServer(String bindAddress, int port, MetricsRegistry registry) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", exchange -> {
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().set("Content-Type", MetricsRegistry.CONTENT_TYPE);
+                // Cached per-target lines are streamed as they are, no body is assembled in memory
+                synchronized (registry) {
+                    exchange.sendResponseHeaders(200, registry.prepare());
+                    try (OutputStream out = new BufferedOutputStream(exchange.getResponseBody(), 64 * 1024)) {
+                        registry.writeTo(out);
+                    }
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+    }
+
+    // Null when the endpoint is disabled or can't bind, the app runs the same either way
+    public static MetricsServer fromConfig(ConfigurationManager configManager, MetricsRegistry registry) {
+        int port = configManager.getInt("metricsPort", 0);
+        if (port <= 0) {
+            return null;
+        }
+        String bindAddress = configManager.getProperty("metricsBindAddress", "127.0.0.1").trim();
+        try {
+            MetricsServer server = new MetricsServer(bindAddress, port, registry);
+            server.start();
+            return server;
+        } catch (IOException e) {
+            System.err.println("Failed to start metrics endpoint on " + bindAddress + ":" + port + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void shutdown() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,188 @@
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+// Dense monitoring mode for hundreds of targets, one table row per target instead of a box each
+public class MonitorTab extends LazyTab {
+
+    private ConfigurationManager configManager;
+    private SessionLogWriter logWriter;
+    private SampleStore sampleStore;
+    private UiUpdateCoalescer uiUpdates;
+    private SessionExecutor sessionExecutor;
+    private MetricsRegistry metrics;
+    private AlertEngine alertEngine;
+    private List<ProbeSession> activeSessions = new ArrayList<>();
+
+    private VBox mainLayout = new VBox(10);
+    private TextArea targetsArea;
+    private TextField intervalField;
+    private CheckBox adaptiveCheckBox;
+    private Label summaryLabel;
+    private TableView<TargetRow> tableView;
+    private ObservableList<TargetRow> rows = FXCollections.observableArrayList();
+
+    public MonitorTab(ConfigurationManager configManager, SessionLogWriter logWriter, SampleStore sampleStore, UiUpdateCoalescer uiUpdates, SessionExecutor sessionExecutor, MetricsRegistry metrics, AlertEngine alertEngine) {
+        super("Monitor");
+        this.configManager = configManager;
+        this.logWriter = logWriter;
+        this.sampleStore = sampleStore;
+        this.uiUpdates = uiUpdates;
+        this.sessionExecutor = sessionExecutor;
+        this.metrics = metrics;
+        this.alertEngine = alertEngine;
+        setClosable(false);
+    }
+
+    @Override
+    protected void initializeUI() {
+        mainLayout.setAlignment(Pos.TOP_LEFT);
+        mainLayout.setPadding(new Insets(10));
+
+        targetsArea = new TextArea();
+        targetsArea.setPromptText("Targets, one per line or separated by commas");
+        targetsArea.setPrefRowCount(4);
+
+        intervalField = new TextField("1000");
+        adaptiveCheckBox = new CheckBox("Back off while unreachable");
+        adaptiveCheckBox.setSelected(configManager.getValue("monitorAdaptive", "false", Boolean::valueOf));
+        adaptiveCheckBox.setOnAction(event -> {
+            configManager.setProperty("monitorAdaptive", String.valueOf(adaptiveCheckBox.isSelected()));
+            configManager.saveProperties();
+        });
+
+        Button startButton = new Button("Start");
+        startButton.setOnAction(event -> startMonitoring());
+        Button stopButton = new Button("Stop");
+        stopButton.setOnAction(event -> stopMonitoring());
+
+        summaryLabel = new Label("Targets: 0");
+
+        HBox controls = new HBox(10, new Label("Ping Interval (ms): "), intervalField, adaptiveCheckBox, startButton, stopButton, summaryLabel);
+        controls.setAlignment(Pos.CENTER_LEFT);
+
+        tableView = new TableView<>(rows);
+        tableView.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        tableView.setFixedCellSize(24); // Lets the virtual flow skip measuring each row
+        tableView.getColumns().add(createColumn("Target", row -> new ReadOnlyStringWrapper(row.getTarget()).getReadOnlyProperty()));
+        tableView.getColumns().add(createColumn("Status", TargetRow::statusProperty));
+        tableView.getColumns().add(createColumn("Success", row -> row.successProperty().asString()));
+        tableView.getColumns().add(createColumn("Failed", row -> row.failureProperty().asString()));
+        tableView.getColumns().add(createColumn("Interval", TargetRow::intervalProperty));
+        tableView.getColumns().add(createColumn("Min", TargetRow::minProperty));
+        tableView.getColumns().add(createColumn("Avg", TargetRow::avgProperty));
+        tableView.getColumns().add(createColumn("Max", TargetRow::maxProperty));
+        tableView.getColumns().add(createColumn("p50", TargetRow::p50Property));
+        tableView.getColumns().add(createColumn("p95", TargetRow::p95Property));
+        tableView.getColumns().add(createColumn("p99", TargetRow::p99Property));
+        tableView.getColumns().add(createColumn("Jitter", TargetRow::jitterProperty));
+        tableView.getColumns().add(createColumn("Loss 1m", TargetRow::loss1mProperty));
+        tableView.getColumns().add(createColumn("Loss 5m", TargetRow::loss5mProperty));
+        tableView.getColumns().add(createColumn("Loss 1h", TargetRow::loss1hProperty));
+        VBox.setVgrow(tableView, Priority.ALWAYS);
+
+        mainLayout.getChildren().addAll(targetsArea, controls, tableView);
+        setContent(mainLayout);
+    }
+
+    private TableColumn<TargetRow, String> createColumn(String title, Function<TargetRow, ObservableValue<String>> value) {
+        TableColumn<TargetRow, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> value.apply(cell.getValue()));
+        return column;
+    }
+
+    private void startMonitoring() {
+        stopMonitoring();
+
+        int interval;
+        try {
+            interval = Integer.parseInt(intervalField.getText().trim());
+            if (interval <= 0) {
+                throw new NumberFormatException();
+            }
+        } catch (NumberFormatException e) {
+            showAlert("Ping interval must be a positive number.");
+            return;
+        }
+
+        List<String> targets = parseTargets(targetsArea.getText());
+        if (targets.isEmpty()) {
+            showAlert("Enter at least one target.");
+            return;
+        }
+
+        String dateTime = new SimpleDateFormat("yyyy-MM-dd hh-mm-ss-a").format(new Date());
+        String sessionFileName = dateTime + ".txt";
+        int timeout = ProbeEngines.getTimeoutMillis(configManager);
+
+        rows.clear();
+        for (String target : targets) {
+            TargetRow row = new TargetRow(target, uiUpdates);
+            MetricsRegistry.TargetMetrics targetMetrics = metrics.target(target);
+            rows.add(row);
+            ProbeSession session = new ProbeSession(target, ProbeEngines.fromConfig(configManager), interval, 0, timeout, new ProbeSession.Listener() {
+                @Override
+                public void onResult(ProbeResult result) {
+                    logWriter.append(target, dateTime, sessionFileName, result.toOutputLine(target));
+                    long now = System.currentTimeMillis();
+                    sampleStore.append(target, now, result);
+                    targetMetrics.record(result, now);
+                    alertEngine.record(target, result, now);
+                    row.record(result);
+                }
+
+                @Override
+                public void onFinished() {
+                    logWriter.closeSession(target, dateTime, sessionFileName);
+                    row.setStatus("Stopped");
+                }
+            });
+            AdaptiveInterval adaptive = adaptiveCheckBox.isSelected() ? AdaptiveInterval.fromConfig(configManager, interval) : null;
+            session.setAdaptiveInterval(adaptive);
+            row.setInterval(interval, adaptive);
+            activeSessions.add(session);
+            sessionExecutor.start(session);
+        }
+        summaryLabel.setText("Targets: " + targets.size());
+    }
+
+    private void stopMonitoring() {
+        for (ProbeSession session : activeSessions) {
+            session.stop();
+        }
+        activeSessions.clear();
+    }
+
+    private List<String> parseTargets(String text) {
+        Set<String> targets = new LinkedHashSet<>();
+        for (String token : text.split("[,\\s]+")) {
+            if (!token.isEmpty()) {
+                targets.add(token);
+            }
+        }
+        return new ArrayList<>(targets);
+    }
+
+    private void showAlert(String message) {
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle("Warning");
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+}
@@ -1,5 +1,4 @@
 import javafx.application.Application;
-import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -8,18 +7,15 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class MultiPingApplication extends Application {
 
-    private ExecutorService executorService = Executors.newCachedThreadPool();
+    private static final int PROBE_TIMEOUT_MS = 1000;
+    private static final int DEFAULT_TCP_PORT = 80;
+
     private List<PingTask> pingTasks = new ArrayList<>();
     private VBox pingAreasContainer = new VBox();
     private TextField intervalField;
@@ -27,11 +23,18 @@ public class MultiPingApplication extends Application {
     private ChoiceBox<Integer> boxChoiceBox;
     private BorderPane root;
 
+    private ChoiceBox<String> engineChoiceBox;
+    private CheckBox streamingCheckBox;
+
     private CheckBox tracert;
+    private UiUpdateCoalescer uiUpdates = new UiUpdateCoalescer();
+    private ProbeScheduler probeScheduler = new ProbeScheduler(ProbeScheduler.DEFAULT_WORKERS);
+    private SessionExecutor sessionExecutor = SessionExecutor.fromConfig(new ConfigurationManager(), probeScheduler);
 
     @Override
     public void start(Stage primaryStage) {
         primaryStage.setTitle("Ping Panel");
+        uiUpdates.start();
 
         root = new BorderPane();
         VBox controlButtons = new VBox(10);
@@ -47,6 +50,10 @@ public class MultiPingApplication extends Application {
 
         HBox intervalBox = new HBox(new Label("Ping Interval (ms): "), intervalField = new TextField("500"));
         HBox amountOfPingsBox = new HBox(new Label("Amount of Pings: "), amountOfPingsField = new TextField());
+        HBox engineBox = new HBox(new Label("Probe Engine: "), engineChoiceBox = new ChoiceBox<>());
+        engineChoiceBox.getItems().addAll(ProbeEngines.NAMES);
+        engineChoiceBox.setValue(ProbeEngines.PROCESS);
+        streamingCheckBox = new CheckBox("Persistent ping process per target");
         HBox buttonBox = new HBox(10);
         Button pingAllButton = new Button("Ping All");
         Button stopAllButton = new Button("Stop All");
@@ -54,7 +61,7 @@ public class MultiPingApplication extends Application {
         stopAllButton.setOnAction(event -> stopAll());
         buttonBox.getChildren().addAll(pingAllButton, stopAllButton);
 
-        controlButtons.getChildren().addAll(boxSelectionBox, intervalBox, amountOfPingsBox, buttonBox);
+        controlButtons.getChildren().addAll(boxSelectionBox, intervalBox, amountOfPingsBox, engineBox, streamingCheckBox, buttonBox);
 
         pingAreasContainer = new VBox();
         pingAreasContainer.setPadding(new Insets(10));
@@ -135,9 +142,7 @@ public class MultiPingApplication extends Application {
         Button pingButton = new Button("Ping");
         Button stopButton = new Button("Stop");
         Label infoLabel = new Label("Success: 0 | Failed: 0 | Data: -");
-        TextArea outputTextArea = new TextArea();
-        outputTextArea.setEditable(false);
-        outputTextArea.setWrapText(true);
+        PingOutputView outputView = new PingOutputView(PingOutputView.DEFAULT_CAPACITY);
 
         PingTask pingTask = null;
 
@@ -149,7 +154,7 @@ public class MultiPingApplication extends Application {
                 int amountOfPings = amountOfPingsText.isEmpty() ? 0 : Integer.parseInt(amountOfPingsText);
                 if (!intervalText.isEmpty()) {
                     int interval = Integer.parseInt(intervalText);
-                    final PingTask finalPingTask = createAndStartPingTask(ip, outputTextArea, infoLabel, interval, amountOfPings);
+                    final PingTask finalPingTask = createAndStartPingTask(ip, outputView, infoLabel, interval, amountOfPings);
                     stopButton.setOnAction(e -> finalPingTask.stop()); // Use final reference
                 } else {
                     showAlert("Interval field cannot be empty.");
@@ -168,13 +173,14 @@ public class MultiPingApplication extends Application {
 
         HBox buttonBox = new HBox(pingButton, stopButton); // Declare buttonBox locally
         buttonBox.setAlignment(Pos.CENTER);
-        pingArea.getChildren().addAll(titleLabel, ipField, buttonBox, infoLabel, outputTextArea);
+        pingArea.getChildren().addAll(titleLabel, ipField, buttonBox, infoLabel, outputView);
         return pingArea;
     }
 
-    private PingTask createAndStartPingTask(String ipAddress, TextArea outputTextArea, Label infoLabel, int interval, int amountOfPings) {
-        PingTask pingTask = new PingTask(ipAddress, outputTextArea, infoLabel, interval, amountOfPings);
-        executorService.execute(pingTask);
+    private PingTask createAndStartPingTask(String ipAddress, PingOutputView outputView, Label infoLabel, int interval, int amountOfPings) {
+        ProbeEngine engine = ProbeEngines.create(engineChoiceBox.getValue(), DEFAULT_TCP_PORT);
+        PingTask pingTask = new PingTask(ipAddress, engine, streamingCheckBox.isSelected(), outputView, infoLabel, interval, amountOfPings);
+        sessionExecutor.execute(pingTask);
         pingTasks.add(pingTask);
         return pingTask;
     }
@@ -197,9 +203,12 @@ public class MultiPingApplication extends Application {
 
     private class PingTask implements Runnable {
         private String ipAddress;
-        private TextArea outputTextArea;
-        private Label infoLabel;
-        private boolean running;
+        private ProbeEngine engine;
+        private PingAreaState areaState;
+        private volatile boolean running;
+        private boolean streaming;
+        private volatile StreamingPingProcess streamingProcess;
+        private volatile ProbeSession probeSession;
         private int interval;
         private int successCount;
         private int failCount;
@@ -211,10 +220,11 @@ public class MultiPingApplication extends Application {
             running = true;
         }
 
-        PingTask(String ipAddress, TextArea outputTextArea, Label infoLabel, int interval, int amountOfPings) {
+        PingTask(String ipAddress, ProbeEngine engine, boolean streaming, PingOutputView outputView, Label infoLabel, int interval, int amountOfPings) {
             this.ipAddress = ipAddress;
-            this.outputTextArea = outputTextArea;
-            this.infoLabel = infoLabel;
+            this.engine = engine;
+            this.streaming = streaming;
+            this.areaState = new PingAreaState(uiUpdates, outputView, infoLabel);
             this.interval = interval;
             this.amountOfPings = amountOfPings;
             this.running = true;
@@ -225,65 +235,82 @@ public class MultiPingApplication extends Application {
 
         @Override
         public void run() {
-            try {
-                while (running && (amountOfPings == 0 || pingCount < amountOfPings)) {
+            if (streaming) {
+                runStreaming();
+                return;
+            }
+            // In scheduler mode the session doesn't hold a thread while it waits for its next probe
+            probeSession = new ProbeSession(ipAddress, engine, interval, amountOfPings, PROBE_TIMEOUT_MS, new ProbeSession.Listener() {
+                @Override
+                public void onResult(ProbeResult result) {
                     pingCount++;
-                    ProcessBuilder processBuilder = new ProcessBuilder("ping", "-n", "1", ipAddress);
-                    Process process = processBuilder.start();
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-                    String line;
-                    StringBuilder stringBuilder = new StringBuilder();
-                    boolean isSummary = false;
-                    while ((line = reader.readLine()) != null) {
-                        stringBuilder.append(line).append("\n");
-                        if (line.contains("Packets: Sent = ")) {
-                            isSummary = true;
-                        } else if (isSummary && line.isEmpty()) {
-                            break; // End of summary section
-                        }
-                    }
-                    reader.close();
-
-                    String result = stringBuilder.toString();
-                    boolean isSuccessful = result.contains("Reply from");
-                    if (isSuccessful) {
-                        successCount++;
-                    } else {
-                        failCount++;
-                    }
+                    recordResult(result);
+                }
 
-                    String[] parts = result.split("\n");
-                    String summaryLine = "";
-                    for (String part : parts) {
-                        if (part.contains("Minimum")) {
-                            summaryLine = part.trim();
-                            break;
-                        }
-                    }
-                    String[] summaryParts = summaryLine.split(",");
-                    if (summaryParts.length >= 3) {
-                        String responseTime = summaryParts[1].trim().replaceAll("[^\\d]", ""); // Remove non-digit characters
-                        long rtt = Long.parseLong(responseTime); // Extract RTT
-                        totalRTT += rtt; // Update totalRTT
-                        minRTT = Math.min(minRTT, rtt); // Update minRTT
-                        maxRTT = Math.max(maxRTT, rtt); // Update maxRTT
-                        Platform.runLater(() -> outputTextArea.appendText("Pinging " + ipAddress + ", replied in " + responseTime + "ms\n"));
+                @Override
+                public void onFinished() {
+                    running = false;
+                }
+            });
+            if (running) {
+                sessionExecutor.start(probeSession);
+            }
+        }
+
+        // Keeps one long-lived ping process for the target and counts results as they stream in
+        private void runStreaming() {
+            streamingProcess = new StreamingPingProcess(ipAddress, interval, new ProbeSession.Listener() {
+                @Override
+                public void onResult(ProbeResult result) {
+                    pingCount++;
+                    recordResult(result);
+                    if (amountOfPings != 0 && pingCount >= amountOfPings) {
+                        PingTask.this.stop();
                     }
+                }
 
-                    Platform.runLater(() -> {
-                        infoLabel.setText(String.format("Success: %d | Failed: %d | Min: %d ms | Max: %d ms | Avg: %.2f ms",
-                                successCount, failCount, minRTT, maxRTT, calculateAverageRTT()));
-                    });
+                @Override
+                public void onFinished() {
+                    running = false;
+                }
+            });
+            if (streamingProcess.getIntervalMillis() != interval) {
+                areaState.appendOutput("Pinging every " + streamingProcess.getIntervalMillis() + " ms, " + streamingProcess.getIntervalLimitReason());
+            }
+            if (running) {
+                streamingProcess.run();
+            }
+        }
 
-                    Thread.sleep(interval); // Using milliseconds for the ping interval
+        private void recordResult(ProbeResult result) {
+            if (result.isSuccess()) {
+                successCount++;
+                long rtt = result.getRttMillis();
+                totalRTT += rtt; // Update totalRTT
+                minRTT = Math.min(minRTT, rtt); // Update minRTT
+                maxRTT = Math.max(maxRTT, rtt); // Update maxRTT
+                areaState.appendOutput("Pinging " + ipAddress + ", replied in " + rtt + "ms");
+            } else {
+                failCount++;
+                if (result.getStatus() == ProbeResult.Status.ERROR) {
+                    areaState.appendOutput("Ping error for " + ipAddress + ": " + result.getDetail());
                 }
-            } catch (IOException | InterruptedException e) {
-                e.printStackTrace();
             }
+
+            areaState.setStatus(String.format("Success: %d | Failed: %d | Min: %d ms | Max: %d ms | Avg: %.2f ms",
+                    successCount, failCount, minRTT, maxRTT, calculateAverageRTT()), null, null);
         }
 
         void stop() {
             running = false;
+            StreamingPingProcess process = streamingProcess;
+            if (process != null) {
+                process.stop();
+            }
+            ProbeSession session = probeSession;
+            if (session != null) {
+                session.stop();
+            }
         }
 
         boolean isRunning() {
@@ -305,7 +332,9 @@ public class MultiPingApplication extends Application {
 
     @Override
     public void stop() {
-        executorService.shutdownNow();
+        uiUpdates.stop();
+        probeScheduler.shutdown();
+        sessionExecutor.shutdown();
     }
 
     public static void main(String[] args) {
@@ -7,6 +7,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class MultiPingTool extends JFrame {
+    private static final int DEFAULT_TCP_PORT = 80;
+
     private JTextField[] ipFields;
     private JButton[] startButtons;
     private JButton[] stopButtons;
@@ -14,6 +16,7 @@ public class MultiPingTool extends JFrame {
     private JTextField intervalField;
     private JTextField countField;
     private JComboBox<Integer> terminalCountComboBox;
+    private JComboBox<String> engineComboBox;
 
     private ExecutorService executorService;
 
@@ -42,6 +45,10 @@ public class MultiPingTool extends JFrame {
         terminalCountComboBox = new JComboBox<>(terminalCounts);
         terminalCountComboBox.addActionListener(new TerminalCountChangeListener());
         settingsPanel.add(terminalCountComboBox);
+        settingsPanel.add(new JLabel("Probe Engine:"));
+        engineComboBox = new JComboBox<>(ProbeEngines.NAMES.toArray(new String[0]));
+        engineComboBox.setSelectedItem(ProbeEngines.REACHABLE);
+        settingsPanel.add(engineComboBox);
         add(settingsPanel);
 
         // Initialize ping terminals
@@ -162,12 +169,14 @@ public class MultiPingTool extends JFrame {
         private int interval;
         private int count;
         private int index;
+        private ProbeEngine engine;
 
         public PingTask(String ip, int interval, int count, int index) {
             this.ip = ip;
             this.interval = interval;
             this.count = count;
             this.index = index;
+            this.engine = ProbeEngines.create((String) engineComboBox.getSelectedItem(), DEFAULT_TCP_PORT);
         }
 
         @Override
@@ -180,9 +189,9 @@ public class MultiPingTool extends JFrame {
                 long maxResponseTime = Long.MIN_VALUE;
                 long minResponseTime = Long.MAX_VALUE;
                 for (int i = 0; count == -1 || i < count; i++) {
-                    long startTime = System.currentTimeMillis();
-                    boolean reachable = address.isReachable(interval);
-                    long responseTime = System.currentTimeMillis() - startTime;
+                    ProbeResult probeResult = engine.probe(address, interval);
+                    boolean reachable = probeResult.isSuccess();
+                    long responseTime = reachable ? probeResult.getRttMillis() : interval;
                     if (reachable) {
                         successCount++;
                         totalResponseTime += responseTime;
@@ -0,0 +1,121 @@
+import javafx.scene.control.Label;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class PingAreaState implements UiUpdateCoalescer.Updatable {
+    private final UiUpdateCoalescer coalescer;
+    private final PingOutputView outputView;
+    private final Label infoLabel;
+    private final RttSparkline sparkline;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    // Guarded by this, written by the probe thread and taken by the FX thread
+    private List<String> pendingOutput = new ArrayList<>();
+    private String infoText;
+    private String infoStyle;
+    private String outputStyle;
+    private int[] pendingRtts = new int[16];
+    private int pendingRttCount;
+
+    public PingAreaState(UiUpdateCoalescer coalescer, PingOutputView outputView, Label infoLabel) {
+        this(coalescer, outputView, infoLabel, null);
+    }
+
+    public PingAreaState(UiUpdateCoalescer coalescer, PingOutputView outputView, Label infoLabel, RttSparkline sparkline) {
+        this.coalescer = coalescer;
+        this.outputView = outputView;
+        this.infoLabel = infoLabel;
+        this.sparkline = sparkline;
+    }
+
+    public void appendOutput(String line) {
+        synchronized (this) {
+            pendingOutput.add(line);
+            // If frames stall, don't buffer more than the view can show anyway
+            if (pendingOutput.size() > 2 * outputView.getCapacity()) {
+                pendingOutput.subList(0, pendingOutput.size() - outputView.getCapacity()).clear();
+            }
+        }
+        publish();
+    }
+
+    // RttSparkline.LOSS for a probe without a reply
+    public void addRtt(int rttMicros) {
+        if (sparkline == null) {
+            return;
+        }
+        synchronized (this) {
+            if (pendingRttCount == pendingRtts.length) {
+                if (pendingRttCount >= RttSparkline.DEFAULT_POINTS * 2) {
+                    // Frames stalled, only the newest samples would be visible anyway
+                    System.arraycopy(pendingRtts, pendingRttCount / 2, pendingRtts, 0, pendingRttCount - pendingRttCount / 2);
+                    pendingRttCount -= pendingRttCount / 2;
+                } else {
+                    pendingRtts = Arrays.copyOf(pendingRtts, pendingRtts.length * 2);
+                }
+            }
+            pendingRtts[pendingRttCount++] = rttMicros;
+        }
+        publish();
+    }
+
+    public void setStatus(String infoText, String infoStyle, String outputStyle) {
+        synchronized (this) {
+            this.infoText = infoText;
+            this.infoStyle = infoStyle;
+            this.outputStyle = outputStyle;
+        }
+        publish();
+    }
+
+    private void publish() {
+        coalescer.publish(this, dirty.compareAndSet(false, true));
+    }
+
+    @Override
+    public void applyUpdate() {
+        // Clear the flag first so anything published while applying queues another frame
+        dirty.set(false);
+        List<String> output;
+        String text;
+        String style;
+        String areaStyle;
+        boolean chartChanged;
+        synchronized (this) {
+            chartChanged = pendingRttCount > 0;
+            for (int i = 0; i < pendingRttCount; i++) {
+                sparkline.addSample(pendingRtts[i]);
+            }
+            pendingRttCount = 0;
+            output = pendingOutput.isEmpty() ? null : pendingOutput;
+            if (output != null) {
+                pendingOutput = new ArrayList<>();
+            }
+            text = infoText;
+            style = infoStyle;
+            areaStyle = outputStyle;
+            infoText = null;
+            infoStyle = null;
+            outputStyle = null;
+        }
+
+        if (output != null) {
+            outputView.appendLines(output);
+        }
+        if (text != null) {
+            infoLabel.setText(text);
+        }
+        if (style != null) {
+            infoLabel.setStyle(style);
+        }
+        if (areaStyle != null) {
+            outputView.setStyle(areaStyle);
+        }
+        if (chartChanged) {
+            sparkline.redraw();
+        }
+    }
+}
@@ -0,0 +1,317 @@
+import java.util.Arrays;
+
+// Classifies single lines of ping output from Linux iputils, BusyBox, macOS and Windows, including the common
+// localized Windows messages.
+// One instance per reading thread: parse() only scans the line and writes primitive fields, it never allocates.
+public final class PingOutputParser {
+    public static final int NONE = 0;
+    public static final int REPLY = 1;
+    public static final int TIMEOUT = 2;
+    public static final int UNREACHABLE = 3;
+    public static final int TTL_EXCEEDED = 4;
+
+    // The RTT label in English, German, French, Spanish, Portuguese and Italian ping output
+    private static final String[] RTT_KEYS = {"time", "zeit", "temps", "tiempo", "tempo", "durata"};
+    // Only the ASCII parts of localized Windows messages, so a console code page that mangles accents still matches
+    private static final String[] UNREACHABLE_TEXTS = {
+            "unreachable", // "Destination Host Unreachable", "Destination net unreachable."
+            "nicht erreichbar", // "Zielhost nicht erreichbar."
+            "inaccessible", // "Hôte de destination inaccessible."
+            "impossible de joindre", // "Impossible de joindre l'hôte de destination."
+            "inaccesible", // "Host de destino inaccesible."
+            "inacess", // "Host de destino inacessível."
+            "irraggiungibile"}; // "Host di destinazione irraggiungibile."
+    private static final String[] TTL_EXCEEDED_TEXTS = {
+            "time to live exceeded",
+            "ttl expir", // "TTL expired in transit.", "TTL expiré lors du transit.", "TTL expirado durante el tránsito."
+            "ttl bei der", // "TTL bei der Übertragung abgelaufen."
+            "ttl scaduto"}; // "TTL scaduto durante il transito."
+    private static final String[] TIMEOUT_TEXTS = {
+            "request timed out", // Windows
+            "request timeout", // macOS
+            "no answer yet", // iputils with -O
+            "berschreitung der anforderung", // "Zeitüberschreitung der Anforderung."
+            "attente de la demande", // "Délai d'attente de la demande dépassé."
+            "tiempo de espera agotado", // "Tiempo de espera agotado para esta solicitud."
+            "esgotado o tempo limite", // "Esgotado o tempo limite do pedido."
+            "richiesta scaduta"}; // "Richiesta scaduta."
+
+    private static final String[] TTL_KEY = {"ttl"};
+    private static final String[] SEQUENCE_KEY = {"seq"};
+    // The texts above bucketed by their first letter, and the letter pairs they start with, so the text scan only
+    // compares where a text can start
+    private static final String[][] TEXTS_BY_FIRST_CHAR = new String[128][];
+    private static final boolean[] FIRST_PAIRS = new boolean[128 * 128];
+    private static final int[][] KINDS_BY_FIRST_CHAR = new int[128][];
+    // A line matching several texts takes the kind ranked first: unreachable, then TTL exceeded, then timeout
+    private static final int[] RANK = {Integer.MAX_VALUE, Integer.MAX_VALUE, 2, 0, 1};
+
+    static {
+        addTexts(UNREACHABLE, UNREACHABLE_TEXTS);
+        addTexts(TTL_EXCEEDED, TTL_EXCEEDED_TEXTS);
+        addTexts(TIMEOUT, TIMEOUT_TEXTS);
+    }
+
+    private int kind;
+    private long rttMicros;
+    private boolean rttUpperBound;
+    private int ttl;
+    private int sequence;
+
+    public int parse(CharSequence line) {
+        kind = NONE;
+        rttMicros = -1;
+        rttUpperBound = false;
+        ttl = -1;
+        sequence = -1;
+
+        // A reply has an RTT key right before its '=' or '<', TTL and sequence sit at the other '=' signs. Only
+        // those signs are looked at, the rest of the line is skipped by indexOf.
+        boolean reply = false;
+        int nextEquals = indexOf(line, '=', 1);
+        int nextLess = indexOf(line, '<', 1);
+        while (nextEquals >= 0 || nextLess >= 0) {
+            int i;
+            char c;
+            if (nextLess < 0 || (nextEquals >= 0 && nextEquals < nextLess)) {
+                i = nextEquals;
+                c = '=';
+                nextEquals = indexOf(line, '=', i + 1);
+            } else {
+                i = nextLess;
+                c = '<';
+                nextLess = indexOf(line, '<', i + 1);
+            }
+            if (!reply && endsWithKey(line, i, RTT_KEYS) && parseRtt(line, i + 1)) {
+                rttUpperBound = c == '<';
+                reply = true;
+            } else if (c == '=' && ttl < 0 && endsWithKey(line, i, TTL_KEY)) {
+                ttl = readNumber(line, i + 1);
+            } else if (c == '=' && sequence < 0 && endsWithKey(line, i, SEQUENCE_KEY)) {
+                sequence = readNumber(line, i + 1);
+            }
+        }
+        if (reply) {
+            kind = REPLY;
+            return kind;
+        }
+        ttl = -1;
+
+        kind = classifyText(line);
+        if (kind == NONE) {
+            sequence = -1;
+        } else if (sequence < 0) {
+            sequence = readNumberAfter(line, "icmp_seq "); // macOS "Request timeout for icmp_seq 3"
+        }
+        return kind;
+    }
+
+    public int getKind() {
+        return kind;
+    }
+
+    public long getRttMicros() {
+        return rttMicros;
+    }
+
+    // Windows prints "time<1ms" for sub-millisecond replies, the RTT is then the bound rather than a measurement
+    public boolean isRttUpperBound() {
+        return rttUpperBound;
+    }
+
+    public int getTtl() {
+        return ttl;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    // Converts the last parse into a ProbeResult, or null when the line wasn't a probe result
+    public ProbeResult toProbeResult() {
+        switch (kind) {
+            case REPLY:
+                return ProbeResult.reply(rttMicros, ttl);
+            case TIMEOUT:
+                return ProbeResult.timeout();
+            case UNREACHABLE:
+                return ProbeResult.unreachable();
+            case TTL_EXCEEDED:
+                return ProbeResult.ttlExceeded();
+            default:
+                return null;
+        }
+    }
+
+    // Reads "12", "0.045 ms", "1.234ms" or "123 usec" starting at from
+    private boolean parseRtt(CharSequence line, int from) {
+        long whole = 0;
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean seenDigit = false;
+        boolean inFraction = false;
+        int i = from;
+        for (; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (!inFraction) {
+                    whole = whole * 10 + (c - '0');
+                } else if (fractionDigits < 3) {
+                    fraction = fraction * 10 + (c - '0');
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !inFraction) {
+                inFraction = true;
+            } else {
+                break;
+            }
+        }
+        if (!seenDigit) {
+            return false;
+        }
+        for (int digits = fractionDigits; digits < 3; digits++) {
+            fraction *= 10;
+        }
+
+        while (i < line.length() && line.charAt(i) == ' ') {
+            i++;
+        }
+        boolean micros = i < line.length() && (line.charAt(i) == 'u' || line.charAt(i) == '\u00b5');
+        rttMicros = micros ? whole : whole * 1000 + fraction;
+        return true;
+    }
+
+    private static void addTexts(int kind, String[] texts) {
+        for (String text : texts) {
+            char first = text.charAt(0);
+            char second = text.charAt(1);
+            // Filled for every case of the pair, so the scan can look up raw characters
+            FIRST_PAIRS[first << 7 | second] = true;
+            FIRST_PAIRS[toUpper(first) << 7 | second] = true;
+            FIRST_PAIRS[first << 7 | toUpper(second)] = true;
+            FIRST_PAIRS[toUpper(first) << 7 | toUpper(second)] = true;
+            String[] bucket = TEXTS_BY_FIRST_CHAR[first];
+            int[] kinds = KINDS_BY_FIRST_CHAR[first];
+            int size = bucket == null ? 0 : bucket.length;
+            bucket = bucket == null ? new String[1] : Arrays.copyOf(bucket, size + 1);
+            kinds = kinds == null ? new int[1] : Arrays.copyOf(kinds, size + 1);
+            bucket[size] = text;
+            kinds[size] = kind;
+            TEXTS_BY_FIRST_CHAR[first] = bucket;
+            KINDS_BY_FIRST_CHAR[first] = kinds;
+        }
+    }
+
+    // One pass over the line, comparing only where a text starts with the current pair of letters
+    private static int classifyText(CharSequence line) {
+        int found = NONE;
+        char next = line.length() > 0 ? line.charAt(0) : 0;
+        for (int i = 0; i < line.length() - 1; i++) {
+            char c = next;
+            next = line.charAt(i + 1);
+            if ((c | next) >= 128 || !FIRST_PAIRS[c << 7 | next]) {
+                continue;
+            }
+            c = toLower(c);
+            String[] candidates = TEXTS_BY_FIRST_CHAR[c];
+            for (int j = 0; j < candidates.length; j++) {
+                int kind = KINDS_BY_FIRST_CHAR[c][j];
+                if (RANK[kind] < RANK[found] && regionMatches(line, i, candidates[j])) {
+                    found = kind;
+                    if (found == UNREACHABLE) {
+                        return found;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private static boolean regionMatches(CharSequence line, int from, String needle) {
+        if (from + needle.length() > line.length()) {
+            return false;
+        }
+        for (int j = 1; j < needle.length(); j++) {
+            if (toLower(line.charAt(from + j)) != needle.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // String.indexOf scans with vectorized intrinsics, other sequences fall back to charAt
+    private static int indexOf(CharSequence line, char c, int from) {
+        if (line instanceof String) {
+            return ((String) line).indexOf(c, from);
+        }
+        for (int i = from; i < line.length(); i++) {
+            if (line.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int readNumberAfter(CharSequence line, String key) {
+        int index = indexOfIgnoreCase(line, key, 0);
+        return index < 0 ? -1 : readNumber(line, index + key.length());
+    }
+
+    private static int readNumber(CharSequence line, int from) {
+        int value = 0;
+        boolean seenDigit = false;
+        for (int i = from; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
+            seenDigit = true;
+        }
+        return seenDigit ? value : -1;
+    }
+
+    // True when one of the keys, as a whole word, ends right before index end
+    private static boolean endsWithKey(CharSequence line, int end, String[] keys) {
+        outer:
+        for (String key : keys) {
+            int start = end - key.length();
+            if (start < 0) {
+                continue;
+            }
+            for (int j = key.length() - 1; j >= 0; j--) {
+                if (toLower(line.charAt(start + j)) != key.charAt(j)) {
+                    continue outer;
+                }
+            }
+            if (start == 0 || !Character.isLetter(line.charAt(start - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static char toLower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static char toUpper(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+    }
+
+    // ASCII-only case folding, the needles are all lower case
+    private static int indexOfIgnoreCase(CharSequence line, String needle, int from) {
+        int last = line.length() - needle.length();
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < needle.length(); j++) {
+                if (toLower(line.charAt(i + j)) != needle.charAt(j)) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,38 @@
+import javafx.scene.control.ListView;
+
+import java.util.List;
+
+// Virtualized replacement for the output TextArea: only visible rows get cells and history is capped
+public class PingOutputView extends ListView<String> {
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private final RingBufferList<String> lines;
+
+    public PingOutputView(int capacity) {
+        this.lines = new RingBufferList<>(capacity);
+        setItems(lines);
+        setFocusTraversable(false);
+    }
+
+    public void appendLines(List<String> newLines) {
+        boolean following = isFollowing();
+        lines.addAllLast(newLines);
+        if (following && !lines.isEmpty()) {
+            scrollTo(lines.size() - 1);
+        }
+    }
+
+    public void clearLines() {
+        lines.clear();
+    }
+
+    public int getCapacity() {
+        return lines.getCapacity();
+    }
+
+    // Keep tailing unless the user has selected an older line to look at it
+    private boolean isFollowing() {
+        int selected = getSelectionModel().getSelectedIndex();
+        return selected < 0 || selected == lines.size() - 1;
+    }
+}
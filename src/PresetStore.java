@@ -0,0 +1,320 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Presets kept in their own file, one block per preset:
+ *
+ *   [Office core]
+ *   boxes=2
+ *   interval=500
+ *   count=0
+ *   adaptive=true
+ *   host=10.0.0.1
+ *   host=10.0.0.2
+ *
+ * The file is read on first use and kept as a sorted name index in memory. Changes are written behind like
+ * ConfigurationManager does, and reported to listeners one preset at a time so views can update single entries.
+ * Presets still stored as preset_<name> properties are moved over on first load.
+ */
+public class PresetStore {
+    public static final String PRESETS_FILE = "presets.txt";
+
+    private static final String LEGACY_PREFIX = "preset_";
+    private static final long SAVE_DELAY_MS = 500;
+
+    public interface Listener {
+        void presetSaved(Preset preset, boolean added);
+
+        void presetRemoved(String name);
+    }
+
+    private final Path file;
+    private final ConfigurationManager configManager;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "preset-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Guarded by this
+    private TreeMap<String, Preset> presets;
+    private boolean saveScheduled;
+
+    public PresetStore(ConfigurationManager configManager) {
+        this(Paths.get(PRESETS_FILE), configManager);
+    }
+
+    public PresetStore(Path file, ConfigurationManager configManager) {
+        this.file = file;
+        this.configManager = configManager;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // Sorted by name. The first call reads the file, so UI code calls this off the FX thread.
+    public synchronized List<String> getNames() {
+        ensureLoaded();
+        return new ArrayList<>(presets.keySet());
+    }
+
+    public synchronized List<Preset> getPresets() {
+        ensureLoaded();
+        return new ArrayList<>(presets.values());
+    }
+
+    // Null when there is no preset with that name
+    public synchronized Preset get(String name) {
+        ensureLoaded();
+        return presets.get(name);
+    }
+
+    // Adds the preset or replaces the one with the same name
+    public void save(Preset preset) {
+        boolean added;
+        synchronized (this) {
+            ensureLoaded();
+            added = presets.put(preset.getName(), preset) == null;
+            scheduleSave();
+        }
+        for (Listener listener : listeners) {
+            listener.presetSaved(preset, added);
+        }
+    }
+
+    public void remove(String name) {
+        synchronized (this) {
+            ensureLoaded();
+            if (presets.remove(name) == null) {
+                return;
+            }
+            scheduleSave();
+        }
+        for (Listener listener : listeners) {
+            listener.presetRemoved(name);
+        }
+    }
+
+    public void shutdown() {
+        flush();
+        writer.shutdownNow();
+    }
+
+    // Writes pending changes now through a temporary file, so a crash never leaves a half-written store
+    public void flush() {
+        List<Preset> snapshot;
+        synchronized (this) {
+            if (!saveScheduled) {
+                return;
+            }
+            saveScheduled = false;
+            snapshot = new ArrayList<>(presets.values());
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Preset preset : snapshot) {
+                    out.write("[" + preset.getName() + "]\n");
+                    out.write("boxes=" + preset.getBoxes() + "\n");
+                    out.write("interval=" + preset.getIntervalMillis() + "\n");
+                    out.write("count=" + preset.getCount() + "\n");
+                    if (preset.isAdaptive()) {
+                        out.write("adaptive=true\n");
+                    }
+                    for (String host : preset.getHosts()) {
+                        out.write("host=" + host + "\n");
+                    }
+                    out.write("\n");
+                }
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving presets: " + e.getMessage());
+        }
+    }
+
+    private void scheduleSave() {
+        if (saveScheduled) {
+            return;
+        }
+        saveScheduled = true;
+        try {
+            writer.schedule(this::flush, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Already shut down; the caller holds the lock, so write from a fresh thread rather than here
+            new Thread(this::flush, "preset-writer").start();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (presets != null) {
+            return;
+        }
+        presets = new TreeMap<>();
+        if (Files.isRegularFile(file)) {
+            try {
+                read();
+            } catch (IOException e) {
+                System.err.println("Error loading presets: " + e.getMessage());
+            }
+        }
+        importLegacyPresets();
+    }
+
+    private void read() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String name = null;
+            int boxes = 1;
+            int interval = 0;
+            int count = 0;
+            boolean adaptive = false;
+            List<String> hosts = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("[") && line.endsWith("]")) {
+                    if (name != null) {
+                        presets.put(name, new Preset(name, boxes, interval, count, adaptive, hosts));
+                    }
+                    name = line.substring(1, line.length() - 1);
+                    boxes = 1;
+                    interval = 0;
+                    count = 0;
+                    adaptive = false;
+                    hosts = new ArrayList<>();
+                    continue;
+                }
+                int separator = line.indexOf('=');
+                if (name == null || separator < 0) {
+                    continue;
+                }
+                String key = line.substring(0, separator).trim();
+                String value = line.substring(separator + 1).trim();
+                switch (key) {
+                    case "boxes":
+                        boxes = ConfigurationManager.parseInt(value, 1);
+                        break;
+                    case "interval":
+                        interval = ConfigurationManager.parseInt(value, 0);
+                        break;
+                    case "count":
+                        count = ConfigurationManager.parseInt(value, 0);
+                        break;
+                    case "adaptive":
+                        adaptive = Boolean.parseBoolean(value);
+                        break;
+                    case "host":
+                        hosts.add(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (name != null) {
+                presets.put(name, new Preset(name, boxes, interval, count, adaptive, hosts));
+            }
+        }
+    }
+
+    // preset_<name>=boxes;interval;count;ip,ip,... as written by earlier versions
+    private void importLegacyPresets() {
+        List<String> legacyKeys = new ArrayList<>();
+        for (String key : configManager.getKeys()) {
+            if (!key.startsWith(LEGACY_PREFIX)) {
+                continue;
+            }
+            legacyKeys.add(key);
+            String[] parts = configManager.getProperty(key, "").split(";");
+            if (parts.length < 3) {
+                continue;
+            }
+            String name = key.substring(LEGACY_PREFIX.length()).replace("\\ ", " ");
+            List<String> hosts = new ArrayList<>();
+            if (parts.length > 3) {
+                Collections.addAll(hosts, parts[3].split(",", -1));
+            }
+            presets.putIfAbsent(name, new Preset(name, ConfigurationManager.parseInt(parts[0], 1),
+                    ConfigurationManager.parseInt(parts[1], 0), ConfigurationManager.parseInt(parts[2], 0), hosts));
+        }
+        if (legacyKeys.isEmpty()) {
+            return;
+        }
+        scheduleSave();
+        flush();
+        for (String key : legacyKeys) {
+            configManager.removeProperty(key);
+        }
+    }
+
+    public static final class Preset {
+        private final String name;
+        private final int boxes;
+        private final int intervalMillis;
+        private final int count;
+        private final boolean adaptive;
+        private final List<String> hosts;
+
+        public Preset(String name, int boxes, int intervalMillis, int count, List<String> hosts) {
+            this(name, boxes, intervalMillis, count, false, hosts);
+        }
+
+        // An interval or count of zero means the field was left empty
+        public Preset(String name, int boxes, int intervalMillis, int count, boolean adaptive, List<String> hosts) {
+            this.name = name;
+            this.boxes = boxes;
+            this.intervalMillis = intervalMillis;
+            this.count = count;
+            this.adaptive = adaptive;
+            this.hosts = Collections.unmodifiableList(new ArrayList<>(hosts));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getBoxes() {
+            return boxes;
+        }
+
+        public int getIntervalMillis() {
+            return intervalMillis;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        // Probes back off while a host is down, see AdaptiveInterval
+        public boolean isAdaptive() {
+            return adaptive;
+        }
+
+        public List<String> getHosts() {
+            return hosts;
+        }
+    }
+}
@@ -1,44 +1,53 @@
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
-public class PresetTab extends Tab implements PresetUpdateListener {
+public class PresetTab extends LazyTab implements PresetStore.Listener {
 
-    private PresetUpdateListener mainTabUpdateListener;
-
-    private ConfigurationManager configManager;
+    private PresetStore presetStore;
     private VBox mainLayout = new VBox(10);
     private TextField presetNameField;
     private ChoiceBox<Integer> numberOfBoxesChoiceBox;
     private TextField intervalField, amountOfPingsField;
+    private CheckBox adaptiveCheckBox;
     private VBox presetsDisplayContainer;
     private VBox ipFieldsContainer;
     private List<TextField> ipTextFields = new ArrayList<>();
+    private Map<String, TitledPane> presetPanes = new HashMap<>();
+    private boolean presetsShown;
+    private boolean presetsStale;
 
-    public PresetTab(ConfigurationManager configManager, PresetUpdateListener listener) {
+    public PresetTab(PresetStore presetStore) {
         super("Manage Presets");
-        this.configManager = configManager;
-        this.mainTabUpdateListener = listener;
+        this.presetStore = presetStore;
         setClosable(false);
-        initializeUI();
+        presetStore.addListener(this);
     }
 
     @Override
-    public void onPresetUpdate() {
-        displayPresets();
+    public void presetSaved(PresetStore.Preset preset, boolean added) {
+        Platform.runLater(() -> showPreset(preset));
     }
 
     @Override
-    public void onMainTabUpdate() {
-        displayPresets();
+    public void presetRemoved(String name) {
+        Platform.runLater(() -> hidePreset(name));
     }
 
-    private void initializeUI() {
+    @Override
+    protected void initializeUI() {
         mainLayout.setAlignment(Pos.TOP_LEFT);
         mainLayout.setPadding(new Insets(10));
 
@@ -63,6 +72,8 @@ public class PresetTab extends Tab implements PresetUpdateListener {
         amountOfPingsField = new TextField();
         amountOfPingsField.setPromptText("Amount of Pings");
 
+        adaptiveCheckBox = new CheckBox("Back off while unreachable");
+
         ipFieldsContainer = new VBox(5);
         updateIpFields(1);
 
@@ -72,7 +83,7 @@ public class PresetTab extends Tab implements PresetUpdateListener {
         createPresetContent.getChildren().addAll(
                 new Label("Preset Name:"), presetNameField,
                 new Label("Number of Boxes:"), numberOfBoxesChoiceBox,
-                new Label("Ping Interval:"), intervalField,
+                new Label("Ping Interval:"), intervalField, adaptiveCheckBox,
                 new Label("Amount of Pings:"), amountOfPingsField,
                 ipFieldsContainer,
                 savePresetButton
@@ -107,76 +118,102 @@ public class PresetTab extends Tab implements PresetUpdateListener {
             return;
         }
 
-        String presetKey = "preset_" + presetName.replace(" ", "\\ ");
-
-        StringBuilder sb = new StringBuilder();
-        sb.append(numberOfBoxesChoiceBox.getValue()).append(";");
-        sb.append(intervalField.getText().trim()).append(";");
-        sb.append(amountOfPingsField.getText().trim()).append(";");
-
+        int interval = parseOrZero(intervalField.getText());
+        int count = parseOrZero(amountOfPingsField.getText());
+        List<String> hosts = new ArrayList<>();
         for (TextField ipField : ipTextFields) {
-            sb.append(ipField.getText().trim()).append(",");
-        }
-
-        if (sb.length() > 0 && sb.charAt(sb.length() - 1) == ',') {
-            sb.deleteCharAt(sb.length() - 1);
+            hosts.add(ipField.getText().trim());
         }
 
         // This will update the preset if it already exists or create a new one if it doesn't
-        configManager.setProperty(presetKey, sb.toString());
-        configManager.saveProperties();
-
-        displayPresets();
-        if (mainTabUpdateListener != null) {
-            mainTabUpdateListener.onPresetUpdate();
-        }
+        presetStore.save(new PresetStore.Preset(presetName, numberOfBoxesChoiceBox.getValue(), interval, count, adaptiveCheckBox.isSelected(), hosts));
     }
 
+    private static int parseOrZero(String value) {
+        return Math.max(0, ConfigurationManager.parseInt(value, 0));
+    }
 
-
+    // The first load reads the store on a background thread; after that only single panes are added, updated or removed
     private void displayPresets() {
-        presetsDisplayContainer.getChildren().clear();
-
-        for (String key : configManager.getKeys()) {
-            if (!key.startsWith("preset_")) continue;
-
-            String presetData = configManager.getProperty(key, "");
-            String[] parts = presetData.split(";");
-            if (parts.length < 3) continue;
-
-            TitledPane titledPane = new TitledPane();
-            titledPane.setText(key.replace("preset_", ""));
-            titledPane.setCollapsible(true);
-            titledPane.setExpanded(false);
-
-            VBox content = new VBox(5);
-            content.getChildren().add(new Label("Number of Boxes: " + parts[0]));
-            content.getChildren().add(new Label("Ping Interval: " + parts[1]));
-            content.getChildren().add(new Label("Amount of Pings: " + parts[2]));
-
-            if (parts.length > 3) {
-                String[] ips = parts[3].split(",");
-                for (String ip : ips) {
-                    content.getChildren().add(new Label("IP: " + ip));
-                }
+        CompletableFuture.supplyAsync(presetStore::getPresets).thenAccept(presets -> Platform.runLater(() -> {
+            List<TitledPane> panes = new ArrayList<>(presets.size());
+            presetPanes.clear();
+            for (PresetStore.Preset preset : presets) {
+                TitledPane pane = createPresetPane(preset);
+                presetPanes.put(preset.getName(), pane);
+                panes.add(pane);
             }
+            presetsDisplayContainer.getChildren().setAll(panes);
+            presetsShown = true;
+            if (presetsStale) {
+                // Something changed while the list was loading
+                presetsStale = false;
+                displayPresets();
+            }
+        }));
+    }
 
-            Button deleteButton = new Button("Delete");
-            int finalIndex = presetsDisplayContainer.getChildren().size();
-            deleteButton.setOnAction(e -> deletePreset(key, finalIndex));
-            content.getChildren().add(deleteButton);
+    private void showPreset(PresetStore.Preset preset) {
+        if (!presetsShown) {
+            presetsStale = isInitialized();
+            return;
+        }
+        TitledPane pane = presetPanes.get(preset.getName());
+        if (pane == null) {
+            pane = createPresetPane(preset);
+            presetPanes.put(preset.getName(), pane);
+            List<Node> children = presetsDisplayContainer.getChildren();
+            int index = Collections.binarySearch(children, pane, Comparator.comparing(node -> ((TitledPane) node).getText()));
+            children.add(index < 0 ? -index - 1 : index, pane);
+        } else {
+            pane.setUserData(preset);
+            if (pane.getContent() != null) {
+                pane.setContent(createPresetDetails(preset));
+            }
+        }
+    }
 
-            titledPane.setContent(content);
-            presetsDisplayContainer.getChildren().add(titledPane);
+    private void hidePreset(String name) {
+        if (!presetsShown) {
+            presetsStale = isInitialized();
+            return;
+        }
+        TitledPane pane = presetPanes.remove(name);
+        if (pane != null) {
+            presetsDisplayContainer.getChildren().remove(pane);
         }
     }
 
-    private void deletePreset(String key, int index) {
-        configManager.removeProperty(key);
-        presetsDisplayContainer.getChildren().remove(index);
-        if (mainTabUpdateListener != null) {
-            mainTabUpdateListener.onPresetUpdate();
+    // The details are only built when the pane is first expanded
+    private TitledPane createPresetPane(PresetStore.Preset preset) {
+        TitledPane titledPane = new TitledPane();
+        titledPane.setText(preset.getName());
+        titledPane.setUserData(preset);
+        titledPane.setCollapsible(true);
+        titledPane.setExpanded(false);
+        titledPane.expandedProperty().addListener((observable, wasExpanded, isExpanded) -> {
+            if (isExpanded && titledPane.getContent() == null) {
+                titledPane.setContent(createPresetDetails((PresetStore.Preset) titledPane.getUserData()));
+            }
+        });
+        return titledPane;
+    }
+
+    private VBox createPresetDetails(PresetStore.Preset preset) {
+        VBox content = new VBox(5);
+        content.getChildren().add(new Label("Number of Boxes: " + preset.getBoxes()));
+        content.getChildren().add(new Label("Ping Interval: " + (preset.getIntervalMillis() > 0 ? preset.getIntervalMillis() : "")));
+        content.getChildren().add(new Label("Amount of Pings: " + (preset.getCount() > 0 ? preset.getCount() : "")));
+        content.getChildren().add(new Label("Back Off While Unreachable: " + (preset.isAdaptive() ? "Yes" : "No")));
+
+        for (String ip : preset.getHosts()) {
+            content.getChildren().add(new Label("IP: " + ip));
         }
+
+        Button deleteButton = new Button("Delete");
+        deleteButton.setOnAction(e -> presetStore.remove(preset.getName()));
+        content.getChildren().add(deleteButton);
+        return content;
     }
 
     private void showAlert(String message) {
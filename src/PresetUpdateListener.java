@@ -1,4 +0,0 @@
-public interface PresetUpdateListener {
-    void onPresetUpdate();
-    void onMainTabUpdate();
-}
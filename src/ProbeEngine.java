@@ -0,0 +1,8 @@
+import java.net.InetAddress;
+
+public interface ProbeEngine {
+    // Sends a single probe to the address and blocks until it is answered or the timeout expires
+    ProbeResult probe(InetAddress address, int timeoutMillis);
+
+    String getName();
+}
@@ -0,0 +1,32 @@
+import java.util.Arrays;
+import java.util.List;
+
+public final class ProbeEngines {
+    public static final String PROCESS = "process";
+    public static final String TCP = "tcp";
+    public static final String REACHABLE = "reachable";
+
+    public static final List<String> NAMES = Arrays.asList(PROCESS, TCP, REACHABLE);
+
+    private ProbeEngines() {
+    }
+
+    public static ProbeEngine create(String name, int tcpPort) {
+        if (TCP.equals(name)) {
+            return new TcpProbeEngine(tcpPort);
+        } else if (REACHABLE.equals(name)) {
+            return new ReachabilityProbeEngine();
+        }
+        return new ProcessProbeEngine();
+    }
+
+    public static ProbeEngine fromConfig(ConfigurationManager configManager) {
+        String name = configManager.getProperty("probeEngine", PROCESS);
+        int tcpPort = configManager.getInt("tcpProbePort", 80);
+        return create(name, tcpPort);
+    }
+
+    public static int getTimeoutMillis(ConfigurationManager configManager) {
+        return configManager.getInt("probeTimeout", 1000);
+    }
+}
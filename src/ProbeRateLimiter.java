@@ -0,0 +1,123 @@
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Token buckets shared by every probe of the process: one global bucket that caps the total probes per second, and
+ * optionally one bucket per subnet so a single router never sees more than its share. Probes reserve a send time
+ * instead of polling for tokens, so waiting probes go out evenly spaced rather than in bursts when tokens come back.
+ */
+public class ProbeRateLimiter {
+    public static final int DEFAULT_SUBNET_PREFIX = 24;
+
+    private final Bucket global;
+    private final double subnetRate;
+    private final int subnetBurst;
+    private final int subnetPrefix;
+    private final Map<Long, Bucket> subnets = new ConcurrentHashMap<>();
+    private final LongAdder delayedProbes = new LongAdder();
+    private final LongAdder waitMicros = new LongAdder();
+
+    // GCRA form of a token bucket: the next time a token is free, and how far ahead of now sends may run
+    private static final class Bucket {
+        private final long intervalNanos;
+        private final long burstNanos;
+        private long nextFree = Long.MIN_VALUE;
+
+        Bucket(double ratePerSecond, int burst) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+            this.burstNanos = intervalNanos * (Math.max(1, burst) - 1);
+        }
+
+        // Takes the first token free at or after the given time and returns when it may be used
+        synchronized long reserve(long earliest) {
+            long free = Math.max(nextFree, earliest - burstNanos);
+            nextFree = free + intervalNanos;
+            return Math.max(earliest, free);
+        }
+    }
+
+    // A rate of zero or less turns that bucket off. Subnets are grouped by the IPv4 prefix length, IPv6 always by /64.
+    public ProbeRateLimiter(double globalRate, int globalBurst, double subnetRate, int subnetBurst, int subnetPrefix) {
+        this.global = globalRate > 0 ? new Bucket(globalRate, globalBurst) : null;
+        this.subnetRate = subnetRate;
+        this.subnetBurst = subnetBurst;
+        this.subnetPrefix = Math.max(0, Math.min(32, subnetPrefix));
+    }
+
+    public static ProbeRateLimiter fromConfig(ConfigurationManager configManager) {
+        int globalRate = configManager.getInt("probeRateLimit", 0);
+        int subnetRate = configManager.getInt("subnetRateLimit", 0);
+        // A burst of a tenth of a second's worth lets a few probes that fall due together go out without delay
+        return new ProbeRateLimiter(globalRate, configManager.getInt("probeRateBurst", Math.max(1, globalRate / 10)),
+                subnetRate, configManager.getInt("subnetRateBurst", Math.max(1, subnetRate / 10)),
+                configManager.getInt("subnetPrefix", DEFAULT_SUBNET_PREFIX));
+    }
+
+    public boolean isEnabled() {
+        return global != null || subnetRate > 0;
+    }
+
+    // Books the send slot for a probe to this address and returns how many nanoseconds from now it is, without
+    // waiting. The probe must go out then, the slot is taken either way.
+    public long reserve(InetAddress address) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        long sendAt = now;
+        if (subnetRate > 0) {
+            sendAt = subnets.computeIfAbsent(subnetKey(address), key -> new Bucket(subnetRate, subnetBurst)).reserve(sendAt);
+        }
+        if (global != null) {
+            sendAt = global.reserve(sendAt);
+        }
+        long delay = sendAt - now;
+        if (delay <= 0) {
+            return 0;
+        }
+        delayedProbes.increment();
+        waitMicros.add(delay / 1000);
+        return delay;
+    }
+
+    // Blocks until the probe to this address may be sent. Returns false if interrupted while waiting.
+    public boolean acquire(InetAddress address) {
+        long delay = reserve(address);
+        if (delay <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public long getDelayedProbes() {
+        return delayedProbes.sum();
+    }
+
+    public long getWaitMicros() {
+        return waitMicros.sum();
+    }
+
+    private long subnetKey(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            long value = ((bytes[0] & 0xFFL) << 24) | ((bytes[1] & 0xFFL) << 16) | ((bytes[2] & 0xFFL) << 8) | (bytes[3] & 0xFFL);
+            return subnetPrefix == 0 ? 0 : value >>> (32 - subnetPrefix);
+        }
+        long prefix = 0;
+        for (int i = 0; i < 8; i++) {
+            prefix = (prefix << 8) | (bytes[i] & 0xFF);
+        }
+        // Kept apart from the IPv4 keys, which never use the top bit
+        return prefix | Long.MIN_VALUE;
+    }
+}
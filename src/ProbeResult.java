@@ -0,0 +1,97 @@
+public class ProbeResult {
+
+    public enum Status {
+        REPLY,
+        TIMEOUT,
+        UNREACHABLE,
+        TTL_EXCEEDED,
+        ERROR
+    }
+
+    private final Status status;
+    private final long rttMicros;
+    private final int ttl;
+    private final String detail;
+
+    private ProbeResult(Status status, long rttMicros, int ttl, String detail) {
+        this.status = status;
+        this.rttMicros = rttMicros;
+        this.ttl = ttl;
+        this.detail = detail;
+    }
+
+    public static ProbeResult reply(long rttMicros) {
+        return new ProbeResult(Status.REPLY, rttMicros, -1, null);
+    }
+
+    public static ProbeResult reply(long rttMicros, int ttl) {
+        return new ProbeResult(Status.REPLY, rttMicros, ttl, null);
+    }
+
+    public static ProbeResult timeout() {
+        return new ProbeResult(Status.TIMEOUT, -1, -1, null);
+    }
+
+    public static ProbeResult unreachable() {
+        return new ProbeResult(Status.UNREACHABLE, -1, -1, null);
+    }
+
+    public static ProbeResult ttlExceeded() {
+        return new ProbeResult(Status.TTL_EXCEEDED, -1, -1, null);
+    }
+
+    public static ProbeResult error(String detail) {
+        return new ProbeResult(Status.ERROR, -1, -1, detail);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isSuccess() {
+        return status == Status.REPLY;
+    }
+
+    public long getRttMicros() {
+        return rttMicros;
+    }
+
+    public long getRttMillis() {
+        return rttMicros / 1000;
+    }
+
+    // -1 when the engine can't see the reply's TTL
+    public int getTtl() {
+        return ttl;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    // Formats the result the way Windows ping does, keeping sub-millisecond RTTs, for logs and output views
+    public String toOutputLine(String target) {
+        switch (status) {
+            case REPLY:
+                return "Reply from " + target + ": time=" + formatRttMillis() + "ms" + (ttl >= 0 ? " TTL=" + ttl : "");
+            case TIMEOUT:
+                return "Request timed out.";
+            case UNREACHABLE:
+                return "Reply from " + target + ": Destination host unreachable.";
+            case TTL_EXCEEDED:
+                return "Reply from " + target + ": TTL expired in transit.";
+            default:
+                return "Ping error for " + target + ": " + detail;
+        }
+    }
+
+    // "12", or "0.045" when the RTT isn't a whole number of milliseconds
+    private String formatRttMillis() {
+        long fraction = rttMicros % 1000;
+        if (fraction == 0) {
+            return String.valueOf(rttMicros / 1000);
+        }
+        String digits = String.valueOf(1000 + fraction).substring(1);
+        return rttMicros / 1000 + "." + digits;
+    }
+}
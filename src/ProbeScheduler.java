@@ -0,0 +1,235 @@
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Runs every session off one timer thread and a small worker pool instead of a sleeping thread per target. Probe
+ * engines block until the reply or the timeout, so the pool grows with the probes actually in flight, up to a few
+ * times its core size: a few threads while targets answer quickly, more while dead hosts sit out their timeouts.
+ * Beyond the maximum, probes queue for the next free worker rather than each getting a thread of its own. Targets
+ * whose last probe failed are probed on a second pool of the same bounds, so when many hosts are down at once their
+ * timeouts only queue behind each other and the live targets keep their interval. Idle workers above the core size
+ * retire after a minute.
+ */
+public class ProbeScheduler {
+    public static final int DEFAULT_WORKERS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    // How far the pool may grow beyond its core size while probes wait out their timeouts
+    private static final int MAX_WORKERS_PER_CORE = 4;
+    public static final int DEFAULT_MAX_WORKERS = DEFAULT_WORKERS * MAX_WORKERS_PER_CORE;
+    private static final long IDLE_WORKER_SECONDS = 60;
+
+    private final ScheduledExecutorService timer;
+    private final WorkerPool workers;
+    private final WorkerPool failingWorkers;
+    private final LongAdder dispatchedProbes = new LongAdder();
+    private final LongAdder skippedProbes = new LongAdder();
+    private final AtomicLong startedSessions = new AtomicLong();
+
+    public ProbeScheduler(int workerThreads) {
+        this(workerThreads, workerThreads * MAX_WORKERS_PER_CORE);
+    }
+
+    // Probes beyond the maximum number of workers queue until one is free
+    public ProbeScheduler(int coreWorkers, int maxWorkers) {
+        timer = Executors.newSingleThreadScheduledExecutor(daemonThreads("probe-scheduler"));
+        int core = Math.max(1, coreWorkers);
+        workers = WorkerPool.create(core, Math.max(core, maxWorkers), "probe-worker");
+        failingWorkers = WorkerPool.create(1, Math.max(core, maxWorkers), "probe-worker-failing");
+    }
+
+    public static ProbeScheduler fromConfig(ConfigurationManager configManager) {
+        return new ProbeScheduler(configManager.getInt("probeWorkers", DEFAULT_WORKERS),
+                configManager.getInt("probeMaxWorkers", DEFAULT_MAX_WORKERS));
+    }
+
+    // Counts its busy workers itself: getActiveCount() locks the pool and walks every worker, which is too much for
+    // the timer thread to do on every dispatch
+    private static final class WorkerPool extends ThreadPoolExecutor {
+        private final AtomicInteger busyWorkers = new AtomicInteger();
+
+        private WorkerPool(int coreWorkers, int maxWorkers, DemandQueue queue, String threadPrefix) {
+            super(coreWorkers, maxWorkers, IDLE_WORKER_SECONDS, TimeUnit.SECONDS, queue, daemonThreads(threadPrefix),
+                    (task, executor) -> {
+                        if (executor.isShutdown()) {
+                            throw new RejectedExecutionException("Probe scheduler is shut down");
+                        }
+                        queue.enqueue(task);
+                    });
+        }
+
+        static WorkerPool create(int coreWorkers, int maxWorkers, String threadPrefix) {
+            DemandQueue queue = new DemandQueue();
+            WorkerPool pool = new WorkerPool(coreWorkers, maxWorkers, queue, threadPrefix);
+            queue.pool = pool;
+            return pool;
+        }
+
+        @Override
+        protected void beforeExecute(Thread thread, Runnable task) {
+            busyWorkers.incrementAndGet();
+        }
+
+        @Override
+        protected void afterExecute(Runnable task, Throwable failure) {
+            busyWorkers.decrementAndGet();
+        }
+
+        // True while every worker is busy and the pool may still start another one
+        boolean canGrow() {
+            int size = getPoolSize();
+            return size < getMaximumPoolSize() && busyWorkers.get() >= size;
+        }
+    }
+
+    // Refuses to queue a probe while every worker is busy and the pool may still grow, which makes the executor
+    // start another worker for it; at the maximum the rejection handler queues it after all
+    private static final class DemandQueue extends LinkedBlockingQueue<Runnable> {
+        private static final long serialVersionUID = 1L;
+
+        private transient volatile WorkerPool pool;
+
+        @Override
+        public boolean offer(Runnable task) {
+            WorkerPool current = pool;
+            if (current != null && current.canGrow()) {
+                return false;
+            }
+            return super.offer(task);
+        }
+
+        void enqueue(Runnable task) {
+            super.offer(task);
+        }
+    }
+
+    // Starts the session at its own phase within its interval so targets added together don't fire together
+    public void submit(ProbeSession session) {
+        long interval = Math.max(1, session.getIntervalMillis());
+        long phase = session.getStartDelayMillis() >= 0 ? session.getStartDelayMillis() : nextPhase(interval);
+        if (session.getAdaptiveInterval() != null) {
+            scheduleNext(session, phase);
+            return;
+        }
+        try {
+            ScheduledFuture<?> task = timer.scheduleAtFixedRate(() -> dispatch(session), phase, interval, TimeUnit.MILLISECONDS);
+            session.setScheduledTask(task);
+        } catch (RejectedExecutionException e) {
+            session.finish();
+        }
+    }
+
+    // Golden-ratio steps through the interval: however many sessions start together, each new one lands in one of
+    // the widest gaps left by the others, so the aggregate probe traffic stays smooth
+    public long nextPhase(long intervalMillis) {
+        double position = (startedSessions.getAndIncrement() * 0.6180339887498949) % 1.0;
+        return (long) (position * intervalMillis);
+    }
+
+    // Adaptive sessions change their interval after every probe, so each probe schedules the next one
+    private void scheduleNext(ProbeSession session, long delayMillis) {
+        try {
+            session.setScheduledTask(timer.schedule(() -> dispatch(session), delayMillis, TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException e) {
+            session.finish();
+        }
+    }
+
+    // Package-private so the benchmarks can drive dispatch without the timer
+    void dispatch(ProbeSession session) {
+        if (!session.isRunning()) {
+            session.finish();
+            return;
+        }
+        if (!session.tryBeginProbe()) {
+            // The previous probe is still waiting for its rate limit slot or its timeout
+            skippedProbes.increment();
+            return;
+        }
+        boolean adaptive = session.getAdaptiveInterval() != null;
+        long start = System.nanoTime();
+        long delayNanos;
+        try {
+            delayNanos = session.reserveProbe();
+        } catch (RuntimeException e) {
+            session.endProbe();
+            throw e;
+        }
+        if (delayNanos < 0) {
+            // Nothing to send yet, e.g. the name is still resolving
+            session.endProbe();
+            if (adaptive && session.isRunning()) {
+                scheduleNext(session, session.getCurrentIntervalMillis());
+            }
+            return;
+        }
+        dispatchedProbes.increment();
+        Runnable send = () -> {
+            try {
+                session.sendProbe();
+            } finally {
+                session.endProbe();
+                if (adaptive && session.isRunning()) {
+                    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    scheduleNext(session, Math.max(0, session.getCurrentIntervalMillis() - elapsedMillis));
+                }
+            }
+        };
+        if (delayNanos == 0) {
+            execute(session, send);
+            return;
+        }
+        // A rate-limited probe waits for its slot on the timer rather than sleeping on a worker
+        try {
+            timer.schedule(() -> execute(session, send), delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            session.endProbe();
+        }
+    }
+
+    private void execute(ProbeSession session, Runnable send) {
+        try {
+            (session.isLastProbeFailed() ? failingWorkers : workers).execute(send);
+        } catch (RejectedExecutionException e) {
+            session.endProbe();
+        }
+    }
+
+    public long getDispatchedProbes() {
+        return dispatchedProbes.sum();
+    }
+
+    public long getSkippedProbes() {
+        return skippedProbes.sum();
+    }
+
+    public int getQueuedProbes() {
+        return workers.getQueue().size() + failingWorkers.getQueue().size();
+    }
+
+    public int getWorkerThreads() {
+        return workers.getPoolSize() + failingWorkers.getPoolSize();
+    }
+
+    public void shutdown() {
+        timer.shutdownNow();
+        workers.shutdownNow();
+        failingWorkers.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
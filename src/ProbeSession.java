@@ -0,0 +1,238 @@
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ProbeSession implements Runnable {
+
+    public interface Listener {
+        void onResult(ProbeResult result);
+
+        void onFinished();
+    }
+
+    private final String target;
+    private final ProbeEngine engine;
+    private final int intervalMillis;
+    private final int count;
+    private final int timeoutMillis;
+    private final Listener listener;
+    private final HostResolver resolver;
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private volatile boolean running = true;
+    private volatile Thread thread;
+    private volatile Future<?> scheduledTask;
+    private volatile AdaptiveInterval adaptiveInterval;
+    private volatile ProbeRateLimiter rateLimiter;
+    private volatile long startDelayMillis = -1;
+    private volatile boolean lastProbeFailed;
+    // Handed from reserveProbe() to sendProbe(), which the in-flight flag keeps in order
+    private InetAddress reservedAddress;
+    private int sent;
+
+    // A count of zero or less probes until the session is stopped
+    public ProbeSession(String target, ProbeEngine engine, int intervalMillis, int count, int timeoutMillis, Listener listener) {
+        this(target, engine, intervalMillis, count, timeoutMillis, listener, HostResolver.getDefault());
+    }
+
+    public ProbeSession(String target, ProbeEngine engine, int intervalMillis, int count, int timeoutMillis, Listener listener, HostResolver resolver) {
+        this.target = target;
+        this.engine = engine;
+        this.intervalMillis = intervalMillis;
+        this.count = count;
+        this.timeoutMillis = timeoutMillis;
+        this.listener = listener;
+        this.resolver = resolver;
+        // Usually resolved by the time the first probe is due, and kept fresh however long the interval gets
+        resolver.retain(target);
+    }
+
+    // Blocking loop for running the session on its own thread instead of through the ProbeScheduler
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        try {
+            if (startDelayMillis > 0) {
+                Thread.sleep(startDelayMillis);
+            }
+            while (running) {
+                long start = System.nanoTime();
+                if (!probeOnce()) {
+                    break;
+                }
+                long remaining = getCurrentIntervalMillis() - (System.nanoTime() - start) / 1_000_000;
+                if (remaining > 0) {
+                    Thread.sleep(remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running = false;
+            thread = null;
+            finish();
+        }
+    }
+
+    // Sends one probe and reports it, returning false once the session has nothing left to send
+    boolean probeOnce() {
+        long delayNanos = reserveProbe();
+        if (delayNanos < 0) {
+            return running;
+        }
+        if (delayNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delayNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return running;
+            }
+        }
+        return sendProbe();
+    }
+
+    // First half of a probe, which never blocks: resolves the target and books its slot with the rate limiter.
+    // Returns the nanoseconds until sendProbe() may run, or -1 when there is nothing to send this time.
+    long reserveProbe() {
+        if (!running) {
+            return -1;
+        }
+        // The resolver answers from its cache; a name still being looked up skips this probe instead of
+        // waiting, so resolver latency never counts towards the RTT
+        InetAddress address;
+        try {
+            address = resolver.getCached(target);
+        } catch (UnknownHostException e) {
+            // The resolver asks again once its negative cache expires, so a DNS outage doesn't end the session.
+            // The error counts towards the probe count so a counted session still ends.
+            listener.onResult(ProbeResult.error("Unknown host " + target));
+            sent++;
+            if (count > 0 && sent >= count) {
+                running = false;
+            }
+            return -1;
+        }
+        if (address == null) {
+            return -1;
+        }
+        reservedAddress = address;
+        ProbeRateLimiter limiter = rateLimiter;
+        return limiter != null ? limiter.reserve(address) : 0;
+    }
+
+    // Second half: sends the reserved probe and reports it, returning false once the session has nothing left
+    boolean sendProbe() {
+        InetAddress address = reservedAddress;
+        reservedAddress = null;
+        if (!running || address == null) {
+            return false;
+        }
+        ProbeResult result = engine.probe(address, timeoutMillis);
+        sent++;
+        lastProbeFailed = !result.isSuccess();
+        if (!running) {
+            return false;
+        }
+        AdaptiveInterval adaptive = adaptiveInterval;
+        if (adaptive != null) {
+            adaptive.record(result.isSuccess());
+        }
+        listener.onResult(result);
+        if (count > 0 && sent >= count) {
+            running = false;
+        }
+        return running;
+    }
+
+    // Used by the scheduler so a slow probe is skipped rather than queued behind itself
+    boolean tryBeginProbe() {
+        return inFlight.compareAndSet(false, true);
+    }
+
+    // Lets the scheduler keep probes that will likely sit out their timeout apart from the others
+    boolean isLastProbeFailed() {
+        return lastProbeFailed;
+    }
+
+    void endProbe() {
+        inFlight.set(false);
+        if (!running) {
+            finish();
+        }
+    }
+
+    void setScheduledTask(Future<?> scheduledTask) {
+        this.scheduledTask = scheduledTask;
+        if (!running) {
+            scheduledTask.cancel(false);
+        }
+    }
+
+    void finish() {
+        if (finished.compareAndSet(false, true)) {
+            resolver.release(target);
+            Future<?> task = scheduledTask;
+            if (task != null) {
+                task.cancel(false);
+            }
+            listener.onFinished();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        Thread current = thread;
+        if (current != null) {
+            current.interrupt();
+        } else if (scheduledTask != null && !inFlight.get()) {
+            finish();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public ProbeEngine getEngine() {
+        return engine;
+    }
+
+    public int getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    // Set before the session starts. Null keeps the fixed interval.
+    public void setAdaptiveInterval(AdaptiveInterval adaptiveInterval) {
+        this.adaptiveInterval = adaptiveInterval;
+    }
+
+    public AdaptiveInterval getAdaptiveInterval() {
+        return adaptiveInterval;
+    }
+
+    // Set by the SessionExecutor, which shares one limiter between all sessions
+    public void setRateLimiter(ProbeRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    // Delay before the first probe. Left at -1 the scheduler spreads the session's start over its interval.
+    public void setStartDelayMillis(long startDelayMillis) {
+        this.startDelayMillis = startDelayMillis;
+    }
+
+    public long getStartDelayMillis() {
+        return startDelayMillis;
+    }
+
+    // The delay before the next probe, which only differs from the interval when the session is adaptive
+    public int getCurrentIntervalMillis() {
+        AdaptiveInterval adaptive = adaptiveInterval;
+        return adaptive != null ? adaptive.getCurrentMillis() : intervalMillis;
+    }
+}
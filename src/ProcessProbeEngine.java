@@ -0,0 +1,54 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+
+public class ProcessProbeEngine implements ProbeEngine {
+
+    @Override
+    public ProbeResult probe(InetAddress address, int timeoutMillis) {
+        ProcessBuilder builder;
+        if (isWindows()) {
+            builder = new ProcessBuilder("ping", "-n", "1", "-w", String.valueOf(timeoutMillis), address.getHostAddress());
+        } else {
+            int timeoutSeconds = Math.max(1, (timeoutMillis + 999) / 1000);
+            builder = new ProcessBuilder("ping", "-c", "1", "-W", String.valueOf(timeoutSeconds), address.getHostAddress());
+        }
+        builder.redirectErrorStream(true);
+
+        Process process = null;
+        try {
+            process = builder.start();
+            ProbeResult result = ProbeResult.timeout();
+            PingOutputParser parser = new PingOutputParser();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (parser.parse(line) != PingOutputParser.NONE) {
+                        result = parser.toProbeResult();
+                    }
+                }
+            }
+            process.waitFor();
+            return result;
+        } catch (IOException e) {
+            return ProbeResult.error(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ProbeResult.error("Interrupted");
+        } finally {
+            if (process != null) {
+                process.destroy();
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return ProbeEngines.PROCESS;
+    }
+
+    static boolean isWindows() {
+        return System.getProperty("os.name").toLowerCase().contains("win");
+    }
+}
@@ -0,0 +1,24 @@
+import java.io.IOException;
+import java.net.InetAddress;
+
+public class ReachabilityProbeEngine implements ProbeEngine {
+
+    @Override
+    public ProbeResult probe(InetAddress address, int timeoutMillis) {
+        long start = System.nanoTime();
+        try {
+            // Uses ICMP echo when the JVM has the privilege for it, otherwise a TCP echo on port 7
+            if (address.isReachable(timeoutMillis)) {
+                return ProbeResult.reply((System.nanoTime() - start) / 1000);
+            }
+            return ProbeResult.timeout();
+        } catch (IOException e) {
+            return ProbeResult.error(e.getMessage());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return ProbeEngines.REACHABLE;
+    }
+}
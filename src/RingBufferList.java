@@ -0,0 +1,91 @@
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Fixed-capacity observable list that drops its oldest entries once full
+public class RingBufferList<E> extends ObservableListBase<E> {
+    private final Object[] elements;
+    private int head;
+    private int size;
+
+    public RingBufferList(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.elements = new Object[capacity];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (E) elements[(head + index) % elements.length];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return elements.length;
+    }
+
+    // Appends a batch, firing a single change for the evicted head and the new tail
+    public void addAllLast(List<? extends E> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        int capacity = elements.length;
+        int skip = Math.max(0, items.size() - capacity); // Lines that would be evicted in the same batch never get stored
+        int incoming = items.size() - skip;
+        int evict = Math.max(0, size + incoming - capacity);
+
+        beginChange();
+        try {
+            if (evict > 0) {
+                List<E> removed = new ArrayList<>(evict);
+                for (int i = 0; i < evict; i++) {
+                    removed.add(get(i));
+                }
+                for (int i = 0; i < evict; i++) {
+                    elements[(head + i) % capacity] = null;
+                }
+                head = (head + evict) % capacity;
+                size -= evict;
+                nextRemove(0, removed);
+            }
+
+            int from = size;
+            for (int i = skip; i < items.size(); i++) {
+                elements[(head + size) % capacity] = items.get(i);
+                size++;
+            }
+            nextAdd(from, size);
+        } finally {
+            endChange();
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        beginChange();
+        try {
+            List<E> removed = new ArrayList<>(this);
+            for (int i = 0; i < size; i++) {
+                elements[(head + i) % elements.length] = null;
+            }
+            head = 0;
+            size = 0;
+            nextRemove(0, removed);
+        } finally {
+            endChange();
+        }
+    }
+}
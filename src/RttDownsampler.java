@@ -0,0 +1,99 @@
+import java.util.Arrays;
+import java.util.List;
+
+// Reduces any number of stored samples to a fixed number of time buckets, keeping min, max and loss per bucket.
+// One pass over the mapped segments, so the cost is independent of how many points end up on screen.
+public class RttDownsampler {
+    private final long startMillis;
+    private final long endMillis;
+    private final int[] minMicros;
+    private final int[] maxMicros;
+    private final int[] replies;
+    private final int[] losses;
+    private long sampleCount;
+    private int highestMicros;
+
+    public RttDownsampler(long startMillis, long endMillis, int buckets) {
+        this.startMillis = startMillis;
+        this.endMillis = Math.max(endMillis, startMillis + 1);
+        this.minMicros = new int[buckets];
+        this.maxMicros = new int[buckets];
+        this.replies = new int[buckets];
+        this.losses = new int[buckets];
+        Arrays.fill(minMicros, Integer.MAX_VALUE);
+    }
+
+    public static RttDownsampler load(List<SampleSegmentReader> segments, long startMillis, long endMillis, int buckets) {
+        RttDownsampler downsampler = new RttDownsampler(startMillis, endMillis, buckets);
+        for (SampleSegmentReader segment : segments) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            int size = segment.size();
+            if (size == 0 || segment.timestampAt(size - 1) < startMillis || segment.getBaseMillis() > endMillis) {
+                continue;
+            }
+            int end = segment.lowerBound(endMillis);
+            for (int i = segment.lowerBound(startMillis); i < end; i++) {
+                downsampler.add(segment.timestampAt(i), segment.statusAt(i), segment.rttMicrosAt(i));
+            }
+        }
+        return downsampler;
+    }
+
+    public void add(long timestampMillis, ProbeResult.Status status, int rttMicros) {
+        if (timestampMillis < startMillis || timestampMillis >= endMillis) {
+            return;
+        }
+        int bucket = (int) ((timestampMillis - startMillis) * minMicros.length / (endMillis - startMillis));
+        sampleCount++;
+        if (status == ProbeResult.Status.REPLY && rttMicros >= 0) {
+            replies[bucket]++;
+            minMicros[bucket] = Math.min(minMicros[bucket], rttMicros);
+            maxMicros[bucket] = Math.max(maxMicros[bucket], rttMicros);
+            highestMicros = Math.max(highestMicros, rttMicros);
+        } else {
+            losses[bucket]++;
+        }
+    }
+
+    public int getBucketCount() {
+        return minMicros.length;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getEndMillis() {
+        return endMillis;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public int getHighestMicros() {
+        return highestMicros;
+    }
+
+    public boolean hasReplies(int bucket) {
+        return replies[bucket] > 0;
+    }
+
+    public int getMinMicros(int bucket) {
+        return minMicros[bucket];
+    }
+
+    public int getMaxMicros(int bucket) {
+        return maxMicros[bucket];
+    }
+
+    public int getReplies(int bucket) {
+        return replies[bucket];
+    }
+
+    public int getLosses(int bucket) {
+        return losses[bucket];
+    }
+}
@@ -0,0 +1,109 @@
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+// Live RTT chart for one ping area. Keeps only the newest samples in a primitive ring and redraws at most once per
+// frame, so the cost per frame depends on the point budget, never on how long the session has been running.
+public class RttSparkline extends Canvas {
+    public static final int DEFAULT_POINTS = 120;
+    public static final int LOSS = -1;
+
+    private static final double HEIGHT = 40;
+    private static final int MIN_SCALE_MICROS = 1000;
+
+    private final int[] rttMicros;
+    private int head; // Next slot to write
+    private int size;
+    private Color replyColor = Color.GREEN;
+    private Color lossColor = Color.RED;
+
+    public RttSparkline() {
+        this(DEFAULT_POINTS);
+    }
+
+    public RttSparkline(int points) {
+        super(0, HEIGHT);
+        this.rttMicros = new int[points];
+        widthProperty().addListener((observable, oldValue, newValue) -> redraw());
+    }
+
+    @Override
+    public boolean isResizable() {
+        return true;
+    }
+
+    @Override
+    public double prefWidth(double height) {
+        return 0;
+    }
+
+    @Override
+    public double prefHeight(double width) {
+        return HEIGHT;
+    }
+
+    @Override
+    public void resize(double width, double height) {
+        setWidth(width);
+        setHeight(height);
+    }
+
+    public void setColors(Color replyColor, Color lossColor) {
+        this.replyColor = replyColor;
+        this.lossColor = lossColor;
+    }
+
+    // FX thread only; LOSS marks a probe without a reply. Call redraw() once after a batch.
+    public void addSample(int micros) {
+        rttMicros[head] = micros;
+        head = (head + 1) % rttMicros.length;
+        if (size < rttMicros.length) {
+            size++;
+        }
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+        redraw();
+    }
+
+    public void redraw() {
+        GraphicsContext gc = getGraphicsContext2D();
+        double width = getWidth();
+        double height = getHeight();
+        gc.clearRect(0, 0, width, height);
+        if (size == 0 || width <= 0) {
+            return;
+        }
+
+        int oldest = (head - size + rttMicros.length) % rttMicros.length;
+        int scale = MIN_SCALE_MICROS;
+        for (int i = 0; i < size; i++) {
+            scale = Math.max(scale, rttMicros[(oldest + i) % rttMicros.length]);
+        }
+
+        // Points are laid out right-aligned against the full budget, so the chart scrolls rather than stretches
+        double step = width / (rttMicros.length - 1);
+        double x = width - (size - 1) * step;
+        double previousY = Double.NaN;
+        gc.setLineWidth(1);
+        for (int i = 0; i < size; i++, x += step) {
+            int micros = rttMicros[(oldest + i) % rttMicros.length];
+            if (micros == LOSS) {
+                gc.setStroke(lossColor);
+                gc.strokeLine(x, 0, x, height);
+                previousY = Double.NaN;
+                continue;
+            }
+            double y = height - 1 - (height - 2) * micros / scale;
+            if (!Double.isNaN(previousY)) {
+                gc.setStroke(replyColor);
+                gc.strokeLine(x - step, previousY, x, y);
+            }
+            previousY = y;
+        }
+        gc.setFill(Color.GRAY);
+        gc.fillText(LatencyStats.formatMillis(scale), 2, 11);
+    }
+}
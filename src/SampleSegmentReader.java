@@ -0,0 +1,139 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Memory-mapped, read-only view of one SampleStore segment. Records are decoded on access, nothing is parsed up front.
+public class SampleSegmentReader {
+    private final Path path;
+    private final MappedByteBuffer records;
+    private final long baseMillis;
+    private final int size;
+    private final long[] indexTimestamps;
+    private final int[] indexRecords;
+
+    private SampleSegmentReader(Path path, MappedByteBuffer records, long baseMillis, int size, long[] indexTimestamps, int[] indexRecords) {
+        this.path = path;
+        this.records = records;
+        this.baseMillis = baseMillis;
+        this.size = size;
+        this.indexTimestamps = indexTimestamps;
+        this.indexRecords = indexRecords;
+    }
+
+    public static SampleSegmentReader open(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < SampleStore.HEADER_SIZE) {
+                throw new IOException("Segment too short: " + segment);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (mapped.getInt(0) != SampleStore.MAGIC || mapped.getInt(4) != SampleStore.RECORD_SIZE) {
+                throw new IOException("Not a sample segment: " + segment);
+            }
+            long base = mapped.getLong(8);
+            int count = (int) Math.min(Integer.MAX_VALUE, (length - SampleStore.HEADER_SIZE) / SampleStore.RECORD_SIZE);
+
+            // The sparse index is optional, a missing or torn sidecar just means plain binary search
+            long[] timestamps = new long[0];
+            int[] recordNumbers = new int[0];
+            Path indexPath = SampleStore.indexPathFor(segment);
+            if (Files.isRegularFile(indexPath)) {
+                ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+                int entries = index.remaining() / SampleStore.INDEX_ENTRY_SIZE;
+                timestamps = new long[entries];
+                recordNumbers = new int[entries];
+                int valid = 0;
+                for (int i = 0; i < entries; i++) {
+                    long timestamp = index.getLong();
+                    int record = index.getInt();
+                    if (record < count) {
+                        timestamps[valid] = timestamp;
+                        recordNumbers[valid] = record;
+                        valid++;
+                    }
+                }
+                if (valid < entries) {
+                    timestamps = Arrays.copyOf(timestamps, valid);
+                    recordNumbers = Arrays.copyOf(recordNumbers, valid);
+                }
+            }
+            return new SampleSegmentReader(segment, mapped, base, count, timestamps, recordNumbers);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getBaseMillis() {
+        return baseMillis;
+    }
+
+    public long timestampAt(int record) {
+        return baseMillis + (records.getInt(offset(record)) & 0xFFFFFFFFL);
+    }
+
+    // RTT in microseconds, -1 when the probe got no reply
+    public int rttMicrosAt(int record) {
+        return records.getInt(offset(record) + 4);
+    }
+
+    public ProbeResult.Status statusAt(int record) {
+        return SampleStore.statusFor(records.get(offset(record) + 8));
+    }
+
+    public int ttlAt(int record) {
+        int ttl = records.get(offset(record) + 9) & 0xFF;
+        return ttl == SampleStore.TTL_UNKNOWN ? -1 : ttl;
+    }
+
+    // First record at or after the timestamp, or size() if there is none
+    public int lowerBound(long timestampMillis) {
+        int low = 0;
+        int high = size;
+        if (indexTimestamps.length > 0) {
+            // Narrow the search to one index stride before touching the mapped records
+            int position = 0;
+            int end = indexTimestamps.length;
+            while (position < end) {
+                int mid = (position + end) >>> 1;
+                if (indexTimestamps[mid] < timestampMillis) {
+                    position = mid + 1;
+                } else {
+                    end = mid;
+                }
+            }
+            if (position > 0) {
+                low = indexRecords[position - 1];
+            }
+            if (position < indexRecords.length) {
+                high = indexRecords[position];
+            }
+        }
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestampAt(mid) < timestampMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int offset(int record) {
+        if (record < 0 || record >= size) {
+            throw new IndexOutOfBoundsException("Record: " + record + ", Size: " + size);
+        }
+        return SampleStore.HEADER_SIZE + record * SampleStore.RECORD_SIZE;
+    }
+}
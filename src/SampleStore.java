@@ -0,0 +1,419 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/*
+ * Append-only binary store of probe samples, one directory per target and one segment file per day.
+ *
+ * Segment layout (big endian):
+ *   header  "PPS1" magic, int record size, long base timestamp (ms)
+ *   records int delta from base (ms), int RTT (us, -1 without a reply), byte status code, byte TTL (0xFF unknown)
+ * Every INDEX_INTERVAL records the writer also appends (long timestamp, int record number) to a ".idx" sidecar.
+ * The status codes are part of the format and must not change when ProbeResult.Status does.
+ */
+public class SampleStore implements Runnable {
+    public static final String DATA_ROOT = "ip data";
+    public static final String SEGMENT_SUFFIX = ".seg";
+    public static final String INDEX_SUFFIX = ".idx";
+
+    static final int MAGIC = 0x50505331; // "PPS1"
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 10;
+    static final int INDEX_ENTRY_SIZE = 12;
+    static final int INDEX_INTERVAL = 1024;
+    static final int TTL_UNKNOWN = 0xFF;
+
+    static final int STATUS_REPLY = 0;
+    static final int STATUS_TIMEOUT = 1;
+    static final int STATUS_UNREACHABLE = 2;
+    static final int STATUS_TTL_EXCEEDED = 3;
+    static final int STATUS_ERROR = 4;
+
+    private static final Pattern UNSAFE_PATH_CHARS = Pattern.compile("[^a-zA-Z0-9.-]");
+    private static final long SEGMENT_SPAN_MS = TimeUnit.DAYS.toMillis(1);
+    private static final int QUEUE_CAPACITY = 65536;
+    private static final int MAX_BATCH = 4096;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+    private static final long IDLE_CLOSE_MS = 60_000;
+
+    private final Path root;
+    private final BlockingQueue<Sample> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    // Only touched by the writer thread
+    private final Map<String, OpenSegment> openSegments = new HashMap<>();
+    private final AtomicLong droppedSamples = new AtomicLong();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private volatile boolean running = true;
+
+    public SampleStore() {
+        this(Paths.get(DATA_ROOT));
+    }
+
+    public SampleStore(Path root) {
+        this.root = root;
+        Thread thread = new Thread(this, "sample-store-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Called from the probe threads, never blocks
+    public void append(String target, long timestampMillis, ProbeResult result) {
+        if (!queue.offer(new Sample(target, timestampMillis, statusCode(result.getStatus()), result.isSuccess() ? result.getRttMicros() : -1, result.getTtl()))) {
+            droppedSamples.incrementAndGet();
+        }
+    }
+
+    public long getDroppedSamples() {
+        return droppedSamples.get();
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public Path targetDirectory(String target) {
+        return root.resolve(UNSAFE_PATH_CHARS.matcher(target).replaceAll("_"));
+    }
+
+    public List<String> listTargets() throws IOException {
+        List<String> targets = new ArrayList<>();
+        if (!Files.isDirectory(root)) {
+            return targets;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path path : stream) {
+                targets.add(path.getFileName().toString());
+            }
+        }
+        Collections.sort(targets);
+        return targets;
+    }
+
+    // Segments of a target (by directory name) ordered by their base timestamp
+    public List<Path> listSegments(String targetDirectoryName) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        Path directory = root.resolve(targetDirectoryName);
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        segments.sort((a, b) -> Long.compare(segmentBase(a), segmentBase(b)));
+        return segments;
+    }
+
+    static int statusCode(ProbeResult.Status status) {
+        switch (status) {
+            case REPLY:
+                return STATUS_REPLY;
+            case TIMEOUT:
+                return STATUS_TIMEOUT;
+            case UNREACHABLE:
+                return STATUS_UNREACHABLE;
+            case TTL_EXCEEDED:
+                return STATUS_TTL_EXCEEDED;
+            default:
+                return STATUS_ERROR;
+        }
+    }
+
+    // Unknown codes, e.g. from a newer version, read back as errors
+    static ProbeResult.Status statusFor(int code) {
+        switch (code) {
+            case STATUS_REPLY:
+                return ProbeResult.Status.REPLY;
+            case STATUS_TIMEOUT:
+                return ProbeResult.Status.TIMEOUT;
+            case STATUS_UNREACHABLE:
+                return ProbeResult.Status.UNREACHABLE;
+            case STATUS_TTL_EXCEEDED:
+                return ProbeResult.Status.TTL_EXCEEDED;
+            default:
+                return ProbeResult.Status.ERROR;
+        }
+    }
+
+    static long segmentBase(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    static Path indexPathFor(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    // Segments the writer currently holds open, maintenance must leave these alone
+    public synchronized boolean isOpen(Path segment) {
+        for (OpenSegment open : openSegments.values()) {
+            if (open.path.equals(segment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void run() {
+        List<Sample> batch = new ArrayList<>(MAX_BATCH);
+        long lastFlush = System.currentTimeMillis();
+        try {
+            while (running || !queue.isEmpty()) {
+                Sample first = queue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                }
+                for (Sample sample : batch) {
+                    write(sample);
+                }
+                batch.clear();
+
+                long now = System.currentTimeMillis();
+                if (now - lastFlush >= FLUSH_INTERVAL_MS) {
+                    flushAll();
+                    closeIdle(now);
+                    lastFlush = now;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            flushAll();
+            synchronized (this) {
+                for (OpenSegment segment : openSegments.values()) {
+                    segment.close();
+                }
+                openSegments.clear();
+            }
+            stopped.countDown();
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        try {
+            stopped.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(Sample sample) {
+        OpenSegment segment = openSegments.get(sample.target);
+        if (segment != null && !segment.accepts(sample.timestampMillis)) {
+            synchronized (this) {
+                openSegments.remove(sample.target);
+            }
+            segment.close();
+            segment = null;
+        }
+        if (segment == null) {
+            try {
+                segment = OpenSegment.open(targetDirectory(sample.target), sample.timestampMillis);
+            } catch (IOException e) {
+                System.err.println("Error opening sample segment for " + sample.target + ": " + e.getMessage());
+                return;
+            }
+            synchronized (this) {
+                openSegments.put(sample.target, segment);
+            }
+        }
+        try {
+            segment.append(sample);
+        } catch (IOException e) {
+            System.err.println("Error writing sample for " + sample.target + ": " + e.getMessage());
+        }
+    }
+
+    private void flushAll() {
+        for (OpenSegment segment : openSegments.values()) {
+            try {
+                segment.flush();
+            } catch (IOException e) {
+                System.err.println("Error flushing sample segment " + segment.path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private synchronized void closeIdle(long now) {
+        Iterator<OpenSegment> iterator = openSegments.values().iterator();
+        while (iterator.hasNext()) {
+            OpenSegment segment = iterator.next();
+            if (now - segment.lastWrite > IDLE_CLOSE_MS) {
+                segment.close();
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class Sample {
+        final String target;
+        final long timestampMillis;
+        final int status;
+        final long rttMicros;
+        final int ttl;
+
+        Sample(String target, long timestampMillis, int status, long rttMicros, int ttl) {
+            this.target = target;
+            this.timestampMillis = timestampMillis;
+            this.status = status;
+            this.rttMicros = rttMicros;
+            this.ttl = ttl;
+        }
+    }
+
+    private static class OpenSegment {
+        final Path path;
+        final FileChannel channel;
+        final FileChannel indexChannel;
+        final long baseMillis;
+        final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 1024).order(ByteOrder.BIG_ENDIAN);
+        final ByteBuffer indexBuffer = ByteBuffer.allocate(INDEX_ENTRY_SIZE * 64).order(ByteOrder.BIG_ENDIAN);
+        long recordCount;
+        long lastWrite = System.currentTimeMillis();
+
+        private OpenSegment(Path path, FileChannel channel, FileChannel indexChannel, long baseMillis, long recordCount) {
+            this.path = path;
+            this.channel = channel;
+            this.indexChannel = indexChannel;
+            this.baseMillis = baseMillis;
+            this.recordCount = recordCount;
+        }
+
+        // Reopens today's segment for the target if there is one, otherwise starts a new one
+        static OpenSegment open(Path directory, long timestampMillis) throws IOException {
+            Files.createDirectories(directory);
+            long dayStart = timestampMillis - Math.floorMod(timestampMillis, SEGMENT_SPAN_MS);
+            Path path = directory.resolve(dayStart + SEGMENT_SUFFIX);
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+            FileChannel indexChannel = null;
+            try {
+                long size = channel.size();
+                if (size < HEADER_SIZE) {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                    header.putInt(MAGIC).putInt(RECORD_SIZE).putLong(dayStart).flip();
+                    channel.truncate(0);
+                    channel.write(header, 0);
+                    size = HEADER_SIZE;
+                }
+                // Drop a torn record left by a crash so the file stays a whole number of records
+                long records = (size - HEADER_SIZE) / RECORD_SIZE;
+                channel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+                channel.position(HEADER_SIZE + records * RECORD_SIZE);
+
+                indexChannel = FileChannel.open(indexPathFor(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                long indexEntries = (records + INDEX_INTERVAL - 1) / INDEX_INTERVAL;
+                if (indexChannel.size() != indexEntries * INDEX_ENTRY_SIZE) {
+                    // A crash between the segment and index writes leaves the sidecar short or long
+                    rebuildIndex(channel, indexChannel, dayStart, indexEntries);
+                }
+                indexChannel.position(indexEntries * INDEX_ENTRY_SIZE);
+                return new OpenSegment(path, channel, indexChannel, dayStart, records);
+            } catch (IOException e) {
+                channel.close();
+                if (indexChannel != null) {
+                    indexChannel.close();
+                }
+                throw e;
+            }
+        }
+
+        private static void rebuildIndex(FileChannel channel, FileChannel indexChannel, long baseMillis, long indexEntries) throws IOException {
+            ByteBuffer delta = ByteBuffer.allocate(4);
+            ByteBuffer index = ByteBuffer.allocate((int) (indexEntries * INDEX_ENTRY_SIZE));
+            for (long entry = 0; entry < indexEntries; entry++) {
+                long record = entry * INDEX_INTERVAL;
+                delta.clear();
+                while (delta.hasRemaining()) {
+                    if (channel.read(delta, HEADER_SIZE + record * RECORD_SIZE + delta.position()) < 0) {
+                        throw new IOException("Segment ended inside record " + record);
+                    }
+                }
+                index.putLong(baseMillis + (delta.getInt(0) & 0xFFFFFFFFL)).putInt((int) record);
+            }
+            index.flip();
+            indexChannel.truncate(0);
+            while (index.hasRemaining()) {
+                indexChannel.write(index, index.position());
+            }
+        }
+
+        boolean accepts(long timestampMillis) {
+            return timestampMillis >= baseMillis && timestampMillis - baseMillis < SEGMENT_SPAN_MS;
+        }
+
+        void append(Sample sample) throws IOException {
+            if (recordCount % INDEX_INTERVAL == 0) {
+                if (!indexBuffer.hasRemaining()) {
+                    flushIndex();
+                }
+                indexBuffer.putLong(sample.timestampMillis).putInt((int) recordCount);
+            }
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.putInt((int) (sample.timestampMillis - baseMillis));
+            buffer.putInt((int) Math.min(Integer.MAX_VALUE, sample.rttMicros));
+            buffer.put((byte) sample.status);
+            buffer.put((byte) (sample.ttl < 0 ? TTL_UNKNOWN : Math.min(sample.ttl, TTL_UNKNOWN - 1)));
+            recordCount++;
+            lastWrite = System.currentTimeMillis();
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+            flushIndex();
+        }
+
+        private void flushIndex() throws IOException {
+            indexBuffer.flip();
+            while (indexBuffer.hasRemaining()) {
+                indexChannel.write(indexBuffer);
+            }
+            indexBuffer.clear();
+        }
+
+        void close() {
+            try {
+                flush();
+            } catch (IOException e) {
+                System.err.println("Error flushing sample segment " + path + ": " + e.getMessage());
+            }
+            try {
+                channel.close();
+                indexChannel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing sample segment " + path + ": " + e.getMessage());
+            }
+        }
+    }
+}
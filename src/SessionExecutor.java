@@ -0,0 +1,115 @@
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Decides where probe sessions and other blocking per-target loops run
+public class SessionExecutor {
+
+    public enum Mode {
+        SCHEDULER,
+        VIRTUAL,
+        PLATFORM;
+
+        public static Mode fromName(String name) {
+            for (Mode mode : values()) {
+                if (mode.name().equalsIgnoreCase(name.trim())) {
+                    return mode;
+                }
+            }
+            return SCHEDULER;
+        }
+    }
+
+    private final Mode mode;
+    private final ProbeScheduler probeScheduler;
+    private final ProbeRateLimiter rateLimiter;
+    private final ExecutorService threads;
+    private final boolean virtualThreads;
+
+    public SessionExecutor(Mode mode, ProbeScheduler probeScheduler) {
+        this(mode, probeScheduler, new ProbeRateLimiter(0, 1, 0, 1, ProbeRateLimiter.DEFAULT_SUBNET_PREFIX));
+    }
+
+    public SessionExecutor(Mode mode, ProbeScheduler probeScheduler, ProbeRateLimiter rateLimiter) {
+        this.mode = mode;
+        this.probeScheduler = probeScheduler;
+        this.rateLimiter = rateLimiter;
+        ExecutorService virtualExecutor = mode == Mode.VIRTUAL ? newVirtualThreadExecutor() : null;
+        this.virtualThreads = virtualExecutor != null;
+        this.threads = virtualExecutor != null ? virtualExecutor : Executors.newCachedThreadPool(platformThreads());
+    }
+
+    public static SessionExecutor fromConfig(ConfigurationManager configManager, ProbeScheduler probeScheduler) {
+        Mode mode = Mode.fromName(configManager.getProperty("executionMode", Mode.SCHEDULER.name()));
+        SessionExecutor executor = new SessionExecutor(mode, probeScheduler, ProbeRateLimiter.fromConfig(configManager));
+        if (mode == Mode.VIRTUAL && !executor.usesVirtualThreads()) {
+            System.out.println("Virtual threads need Java 21 or newer, falling back to platform threads");
+        }
+        return executor;
+    }
+
+    public void start(ProbeSession session) {
+        session.setRateLimiter(rateLimiter);
+        if (mode == Mode.SCHEDULER) {
+            probeScheduler.submit(session);
+        } else {
+            if (session.getStartDelayMillis() < 0) {
+                session.setStartDelayMillis(probeScheduler.nextPhase(Math.max(1, session.getIntervalMillis())));
+            }
+            // Virtual threads unmount while the session sleeps, platform threads stay pinned to it
+            threads.execute(session);
+        }
+    }
+
+    // For loops that must block on their own, such as reading a streaming ping process
+    public void execute(Runnable task) {
+        threads.execute(task);
+    }
+
+    // Shared by every session started here, and by sweeps
+    public ProbeRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void shutdown() {
+        threads.shutdownNow();
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    // Looked up reflectively so the project still builds and runs on Java 17
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    static ThreadFactory platformThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "probe-session-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
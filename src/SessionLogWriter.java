@@ -0,0 +1,288 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+public class SessionLogWriter implements Runnable {
+    public static final String LOG_ROOT = "ip logs";
+
+    private static final Pattern UNSAFE_PATH_CHARS = Pattern.compile("[^a-zA-Z0-9.-]");
+    private static final int QUEUE_CAPACITY = 65536;
+    private static final int MAX_BATCH = 1024;
+    private static final long FLUSH_INTERVAL_MS = 500;
+    private static final int FLUSH_BYTES = 64 * 1024;
+    private static final long IDLE_CLOSE_MS = 60_000;
+    public static final long DEFAULT_ROLL_BYTES = 10L * 1024 * 1024;
+    public static final long DEFAULT_ROLL_HOURS = 24;
+
+    private final BlockingQueue<LogRecord> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    // Only touched by the writer thread
+    private final Map<Path, OpenLog> openLogs = new HashMap<>();
+    private final Set<OpenLog> dirty = new HashSet<>();
+    // Files currently held open, readable from other threads so maintenance can skip them
+    private final Set<Path> openFiles = ConcurrentHashMap.newKeySet();
+    private final Path root;
+    private final long rollBytes;
+    private final long rollMillis;
+    private final AtomicLong droppedRecords = new AtomicLong();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final Thread thread;
+    private volatile boolean running = true;
+    private long lastFlush = System.currentTimeMillis();
+
+    public SessionLogWriter() {
+        this(DEFAULT_ROLL_BYTES, TimeUnit.HOURS.toMillis(DEFAULT_ROLL_HOURS));
+    }
+
+    // Session files are rolled into numbered parts once they pass either limit
+    public SessionLogWriter(long rollBytes, long rollMillis) {
+        this(Paths.get(LOG_ROOT), rollBytes, rollMillis);
+    }
+
+    public SessionLogWriter(Path root, long rollBytes, long rollMillis) {
+        this.root = root;
+        this.rollBytes = rollBytes;
+        this.rollMillis = rollMillis;
+        thread = new Thread(this, "session-log-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Called from the probe threads, never blocks
+    public void append(String ipAddress, String sessionDate, String sessionFileName, String line) {
+        if (!queue.offer(new LogRecord(sessionPath(root, ipAddress, sessionDate, sessionFileName), sessionDate + ": " + line + "\n"))) {
+            droppedRecords.incrementAndGet();
+        }
+    }
+
+    public void closeSession(String ipAddress, String sessionDate, String sessionFileName) {
+        if (!queue.offer(new LogRecord(sessionPath(root, ipAddress, sessionDate, sessionFileName), null))) {
+            droppedRecords.incrementAndGet();
+        }
+    }
+
+    public static SessionLogWriter fromConfig(ConfigurationManager configManager) {
+        long rollBytes = configManager.getLong("logRollBytes", DEFAULT_ROLL_BYTES);
+        long rollHours = configManager.getLong("logRollHours", DEFAULT_ROLL_HOURS);
+        return new SessionLogWriter(rollBytes > 0 ? rollBytes : DEFAULT_ROLL_BYTES,
+                TimeUnit.HOURS.toMillis(rollHours > 0 ? rollHours : DEFAULT_ROLL_HOURS));
+    }
+
+    public boolean isOpen(Path file) {
+        return openFiles.contains(file.toAbsolutePath().normalize());
+    }
+
+    public long getDroppedRecords() {
+        return droppedRecords.get();
+    }
+
+    public static Path sessionPath(String ipAddress, String sessionDate, String sessionFileName) {
+        return sessionPath(Paths.get(LOG_ROOT), ipAddress, sessionDate, sessionFileName);
+    }
+
+    public static Path sessionPath(Path root, String ipAddress, String sessionDate, String sessionFileName) {
+        String folderName = UNSAFE_PATH_CHARS.matcher(ipAddress).replaceAll("_"); // Sanitize IP address for use in file paths
+        return root.resolve(folderName).resolve(sessionDate).resolve(sessionFileName);
+    }
+
+    @Override
+    public void run() {
+        List<LogRecord> batch = new ArrayList<>(MAX_BATCH);
+        int pendingBytes = 0;
+        try {
+            while (running || !queue.isEmpty()) {
+                LogRecord first = queue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                }
+
+                for (LogRecord record : batch) {
+                    if (record.line == null) {
+                        close(record.path);
+                        continue;
+                    }
+                    OpenLog log = open(record.path);
+                    if (log != null) {
+                        try {
+                            log.writer.write(record.line);
+                            log.lastWrite = System.currentTimeMillis();
+                            log.bytes += record.line.length();
+                            pendingBytes += record.line.length();
+                            dirty.add(log);
+                            if (log.bytes >= rollBytes || log.lastWrite - log.openedAt >= rollMillis) {
+                                roll(record.path, log);
+                            }
+                        } catch (IOException e) {
+                            System.err.println("Error writing to log file: " + e.getMessage());
+                            close(record.path);
+                        }
+                    }
+                }
+                batch.clear();
+
+                long now = System.currentTimeMillis();
+                if (pendingBytes >= FLUSH_BYTES || now - lastFlush >= FLUSH_INTERVAL_MS) {
+                    flush();
+                    pendingBytes = 0;
+                    lastFlush = now;
+                    closeIdle(now);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            flush();
+            for (Path path : new ArrayList<>(openLogs.keySet())) {
+                close(path);
+            }
+            stopped.countDown();
+        }
+    }
+
+    // Drains the queue, flushes everything to disk and stops the writer thread
+    public void shutdown() {
+        running = false;
+        try {
+            stopped.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private OpenLog open(Path path) {
+        OpenLog log = openLogs.get(path);
+        if (log != null) {
+            return log;
+        }
+        try {
+            Files.createDirectories(path.getParent()); // Create the directory for the IP and date if it doesn't exist
+            // Continue in the newest part if the session was already rolled before it went idle
+            int part = 1;
+            while (Files.exists(partPath(path, part + 1))) {
+                part++;
+            }
+            log = openPart(path, part);
+            openLogs.put(path, log);
+            return log;
+        } catch (IOException e) {
+            System.err.println("Error opening log file " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private OpenLog openPart(Path path, int part) throws IOException {
+        Path file = partPath(path, part);
+        BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        OpenLog log = new OpenLog(writer, file, part, Files.size(file));
+        openFiles.add(file.toAbsolutePath().normalize());
+        return log;
+    }
+
+    private void roll(Path path, OpenLog log) {
+        close(path);
+        try {
+            openLogs.put(path, openPart(path, log.part + 1));
+        } catch (IOException e) {
+            System.err.println("Error rolling log file " + path + ": " + e.getMessage());
+        }
+    }
+
+    // Part 1 keeps the session's own name, later parts become "<session>.2.txt", "<session>.3.txt", ...
+    static Path partPath(Path path, int part) {
+        if (part <= 1) {
+            return path;
+        }
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        return path.resolveSibling(stem + "." + part + extension);
+    }
+
+    private void close(Path path) {
+        OpenLog log = openLogs.remove(path);
+        if (log != null) {
+            dirty.remove(log);
+            try {
+                log.writer.close();
+            } catch (IOException e) {
+                System.err.println("Error closing log file " + path + ": " + e.getMessage());
+            }
+            openFiles.remove(log.file.toAbsolutePath().normalize());
+        }
+    }
+
+    private void flush() {
+        for (OpenLog log : dirty) {
+            try {
+                log.writer.flush();
+            } catch (IOException e) {
+                System.err.println("Error flushing log file: " + e.getMessage());
+            }
+        }
+        dirty.clear();
+    }
+
+    // Sessions that were never closed (e.g. the app was killed mid-ping) should not pin file handles forever
+    private void closeIdle(long now) {
+        Iterator<Map.Entry<Path, OpenLog>> iterator = openLogs.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, OpenLog> entry = iterator.next();
+            if (now - entry.getValue().lastWrite > IDLE_CLOSE_MS) {
+                dirty.remove(entry.getValue());
+                try {
+                    entry.getValue().writer.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing log file " + entry.getKey() + ": " + e.getMessage());
+                }
+                openFiles.remove(entry.getValue().file.toAbsolutePath().normalize());
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class LogRecord {
+        final Path path;
+        final String line; // null marks the end of the session
+
+        LogRecord(Path path, String line) {
+            this.path = path;
+            this.line = line;
+        }
+    }
+
+    private static class OpenLog {
+        final BufferedWriter writer;
+        final Path file;
+        final int part;
+        final long openedAt = System.currentTimeMillis();
+        long lastWrite = openedAt;
+        long bytes;
+
+        OpenLog(BufferedWriter writer, Path file, int part, long bytes) {
+            this.writer = writer;
+            this.file = file;
+            this.part = part;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -1,25 +1,27 @@
+import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.ColorPicker;
 import javafx.scene.control.Label;
-import javafx.scene.control.Tab;
+import javafx.scene.control.TextField;
 import javafx.scene.control.TitledPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 
-public class SettingsTab extends Tab {
+public class SettingsTab extends LazyTab {
     private ConfigurationManager configManager;
 
     public SettingsTab(ConfigurationManager configManager) {
         super("Settings");
         this.configManager = configManager;
         setClosable(false);
-        initializeUI();
     }
 
-    private void initializeUI() {
+    @Override
+    protected void initializeUI() {
         VBox mainLayout = new VBox(10);
         //mainLayout.getStyleClass().add("color-settings");
         mainLayout.setPadding(new Insets(15, 20, 20, 20));
@@ -33,7 +35,48 @@ public class SettingsTab extends Tab {
         TitledPane colorSettingsPane = new TitledPane("Color Settings", colorSettingsLayout);
         colorSettingsPane.setExpanded(true);
 
-        mainLayout.getChildren().add(colorSettingsPane);
+        // Probe Settings Section
+        VBox probeSettingsLayout = new VBox(10);
+        probeSettingsLayout.getChildren().addAll(
+                createProbeEngineSetting(),
+                createExecutionModeSetting(),
+                createTextSetting("Probe Timeout (ms):", "probeTimeout", "1000"),
+                createTextSetting("TCP Probe Port:", "tcpProbePort", "80"),
+                createTextSetting("Longest Backoff Interval (ms):", "adaptiveMaxInterval", String.valueOf(AdaptiveInterval.DEFAULT_MAX_MILLIS)),
+                createTextSetting("Fast Probes After Up/Down (0 = off):", "adaptiveBoostProbes", String.valueOf(AdaptiveInterval.DEFAULT_BOOST_PROBES)),
+                createTextSetting("Fast Probe Interval (ms, 0 = quarter):", "adaptiveBoostInterval", "0"),
+                createTextSetting("Probe Worker Threads (restart):", "probeWorkers", String.valueOf(ProbeScheduler.DEFAULT_WORKERS)),
+                createTextSetting("Max Probe Worker Threads (restart):", "probeMaxWorkers", String.valueOf(ProbeScheduler.DEFAULT_MAX_WORKERS)),
+                createTextSetting("Max Probes Per Second (0 = unlimited, restart):", "probeRateLimit", "0"),
+                createTextSetting("Max Probes Per Second Per Subnet (0 = unlimited, restart):", "subnetRateLimit", "0"),
+                createTextSetting("Subnet Prefix Length (restart):", "subnetPrefix", String.valueOf(ProbeRateLimiter.DEFAULT_SUBNET_PREFIX)),
+                createTextSetting("Metrics Port (0 = off, restart):", "metricsPort", "0"),
+                createTextSetting("Alert Rules File (restart):", "alertRulesFile", AlertEngine.DEFAULT_RULES_FILE));
+
+        TitledPane probeSettingsPane = new TitledPane("Probe Settings", probeSettingsLayout);
+        probeSettingsPane.setExpanded(true);
+
+        // Log Settings Section
+        VBox logSettingsLayout = new VBox(10);
+        logSettingsLayout.getChildren().addAll(
+                createTextSetting("Roll Log After Bytes (restart):", "logRollBytes", String.valueOf(SessionLogWriter.DEFAULT_ROLL_BYTES)),
+                createTextSetting("Roll Log After Hours (restart):", "logRollHours", String.valueOf(SessionLogWriter.DEFAULT_ROLL_HOURS)),
+                createTextSetting("Keep Logs For Days (0 = forever):", "logRetentionDays", "90"));
+
+        TitledPane logSettingsPane = new TitledPane("Log Settings", logSettingsLayout);
+        logSettingsPane.setExpanded(false);
+
+        // Sweep Settings Section
+        VBox sweepSettingsLayout = new VBox(10);
+        sweepSettingsLayout.getChildren().addAll(
+                createTextSetting("Sweep Probes In Flight:", "sweepConcurrency", String.valueOf(SweepRunner.DEFAULT_CONCURRENCY)),
+                createTextSetting("Sweep Rate (probes/s, 0 = unlimited):", "sweepRate", String.valueOf(SweepRunner.DEFAULT_RATE)),
+                createTextSetting("Sweep Timeout (ms):", "sweepTimeout", String.valueOf(SweepRunner.DEFAULT_TIMEOUT)));
+
+        TitledPane sweepSettingsPane = new TitledPane("Sweep Settings", sweepSettingsLayout);
+        sweepSettingsPane.setExpanded(false);
+
+        mainLayout.getChildren().addAll(colorSettingsPane, probeSettingsPane, logSettingsPane, sweepSettingsPane);
         setContent(mainLayout);
     }
 
@@ -53,4 +96,56 @@ public class SettingsTab extends Tab {
         return settingBox;
     }
 
+    private HBox createProbeEngineSetting() {
+        Label label = new Label("Probe Engine:");
+        label.setFont(new Font("Arial", 14));
+        ChoiceBox<String> engineChoiceBox = new ChoiceBox<>(FXCollections.observableArrayList(ProbeEngines.NAMES));
+        engineChoiceBox.setValue(configManager.getProperty("probeEngine", ProbeEngines.PROCESS));
+        engineChoiceBox.setOnAction(event -> {
+            configManager.setProperty("probeEngine", engineChoiceBox.getValue());
+            configManager.saveProperties();
+        });
+
+        HBox settingBox = new HBox(10);
+        settingBox.getChildren().addAll(label, engineChoiceBox);
+        settingBox.setAlignment(Pos.CENTER_LEFT);
+        return settingBox;
+    }
+
+    private HBox createExecutionModeSetting() {
+        Label label = new Label("Execution Mode (restart):");
+        label.setFont(new Font("Arial", 14));
+        ChoiceBox<SessionExecutor.Mode> modeChoiceBox = new ChoiceBox<>(FXCollections.observableArrayList(SessionExecutor.Mode.values()));
+        modeChoiceBox.setValue(SessionExecutor.Mode.fromName(configManager.getProperty("executionMode", SessionExecutor.Mode.SCHEDULER.name())));
+        modeChoiceBox.setOnAction(event -> {
+            configManager.setProperty("executionMode", modeChoiceBox.getValue().name());
+            configManager.saveProperties();
+        });
+
+        HBox settingBox = new HBox(10);
+        settingBox.getChildren().addAll(label, modeChoiceBox);
+        settingBox.setAlignment(Pos.CENTER_LEFT);
+        return settingBox;
+    }
+
+    private HBox createTextSetting(String labelText, String propertyKey, String defaultValue) {
+        Label label = new Label(labelText);
+        label.setFont(new Font("Arial", 14));
+        TextField textField = new TextField(configManager.getProperty(propertyKey, defaultValue));
+        textField.setOnAction(event -> {
+            configManager.setProperty(propertyKey, textField.getText().trim());
+            configManager.saveProperties();
+        });
+        textField.focusedProperty().addListener((observable, wasFocused, isFocused) -> {
+            if (!isFocused) {
+                configManager.setProperty(propertyKey, textField.getText().trim());
+                configManager.saveProperties();
+            }
+        });
+
+        HBox settingBox = new HBox(10);
+        settingBox.getChildren().addAll(label, textField);
+        settingBox.setAlignment(Pos.CENTER_LEFT);
+        return settingBox;
+    }
 }
@@ -0,0 +1,38 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+// Startup phase timings, printed in one line once the first frame has been laid out
+public final class StartupTimer {
+    private static final List<String> phases = new ArrayList<>();
+    private static long lastMark;
+    private static boolean reported;
+
+    private StartupTimer() {
+    }
+
+    public static synchronized void begin() {
+        lastMark = System.nanoTime();
+    }
+
+    public static synchronized void mark(String phase) {
+        long now = System.nanoTime();
+        phases.add(phase + " " + (now - lastMark) / 1_000_000 + " ms");
+        lastMark = now;
+    }
+
+    public static synchronized void reportFirstFrame() {
+        if (reported) {
+            return;
+        }
+        reported = true;
+        mark("first frame");
+        long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.out.println("Startup: " + String.join(", ", phases) + " (" + sinceJvmStart + " ms since JVM start)");
+    }
+
+    // Later, on-demand work such as building a tab the first time it is opened
+    public static void log(String message) {
+        System.out.println("Startup: " + message);
+    }
+}
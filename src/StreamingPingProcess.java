@@ -0,0 +1,228 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+public class StreamingPingProcess implements Runnable {
+    private static final long MIN_RESTART_DELAY_MS = 250;
+    private static final long MAX_RESTART_DELAY_MS = 5000;
+    // iputils refuses shorter intervals for anyone but root, macOS below 100 ms
+    static final int IPUTILS_USER_MIN_INTERVAL_MS = 200;
+    static final int MACOS_USER_MIN_INTERVAL_MS = 100;
+    // Windows ping has no interval option at all
+    static final int WINDOWS_INTERVAL_MS = 1000;
+    // Output of a ping that rejected its command line rather than failing to reach the target
+    private static final Pattern USAGE_ERROR = Pattern.compile(
+            "usage|invalid (option|argument)|illegal option|unrecognized option|super-?user|not permitted",
+            Pattern.CASE_INSENSITIVE);
+
+    // The ping implementations take different options for the same thing
+    enum Flavor {
+        WINDOWS,
+        IPUTILS,
+        MACOS,
+        BUSYBOX,
+        OTHER
+    }
+
+    private static volatile Flavor detectedFlavor;
+
+    private final String target;
+    private final int intervalMillis;
+    private final ProbeSession.Listener listener;
+    private volatile boolean running = true;
+    private volatile Process process;
+
+    public StreamingPingProcess(String target, int intervalMillis, ProbeSession.Listener listener) {
+        this.target = target;
+        this.intervalMillis = effectiveInterval(flavor(), isPrivileged(), intervalMillis);
+        this.listener = listener;
+        HostResolver.getDefault().prefetch(target);
+    }
+
+    // The interval the ping process actually runs at, which may be longer than the one asked for
+    public int getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    // Why getIntervalMillis() differs from the interval asked for, for telling the user
+    public String getIntervalLimitReason() {
+        return flavor() == Flavor.WINDOWS ? "Windows ping always sends once per second" : "shorter intervals need root";
+    }
+
+    @Override
+    public void run() {
+        long restartDelay = MIN_RESTART_DELAY_MS;
+        try {
+            while (running) {
+                boolean sawResult = false;
+                String usageError = null;
+                try {
+                    ProcessBuilder builder = new ProcessBuilder(buildCommand(flavor(), intervalMillis,
+                            HostResolver.getDefault().getCachedText(target)));
+                    builder.redirectErrorStream(true);
+                    process = builder.start();
+                    if (!running) {
+                        break;
+                    }
+
+                    PingOutputParser parser = new PingOutputParser();
+                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                        String line;
+                        while (running && (line = reader.readLine()) != null) {
+                            if (parser.parse(line) != PingOutputParser.NONE) {
+                                sawResult = true;
+                                listener.onResult(parser.toProbeResult());
+                            } else if (!sawResult && usageError == null && USAGE_ERROR.matcher(line).find()) {
+                                usageError = line.trim();
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    if (running) {
+                        System.err.println("Streaming ping for " + target + " failed: " + e.getMessage());
+                    }
+                } finally {
+                    destroyProcess();
+                }
+
+                if (!running) {
+                    break;
+                }
+                if (usageError != null) {
+                    // Restarting with the same options would only fail the same way
+                    listener.onResult(ProbeResult.error("ping rejected its options: " + usageError));
+                    break;
+                }
+                // The process died on its own, restart it with a backoff so a broken target cannot spin
+                restartDelay = sawResult ? MIN_RESTART_DELAY_MS : Math.min(restartDelay * 2, MAX_RESTART_DELAY_MS);
+                Thread.sleep(restartDelay);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running = false;
+            destroyProcess();
+            listener.onFinished();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        destroyProcess();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void destroyProcess() {
+        Process current = process;
+        if (current != null) {
+            current.destroy();
+        }
+    }
+
+    static int effectiveInterval(Flavor flavor, boolean privileged, int intervalMillis) {
+        if (flavor == Flavor.WINDOWS) {
+            return WINDOWS_INTERVAL_MS;
+        }
+        if (privileged) {
+            return intervalMillis;
+        }
+        switch (flavor) {
+            case IPUTILS:
+                return Math.max(intervalMillis, IPUTILS_USER_MIN_INTERVAL_MS);
+            case MACOS:
+                return Math.max(intervalMillis, MACOS_USER_MIN_INTERVAL_MS);
+            default:
+                return intervalMillis;
+        }
+    }
+
+    // Windows ping has no interval option and always sends once per second. Only iputils knows -O, which reports
+    // missed replies as they happen; elsewhere a missed reply shows up as a gap in the sequence numbers only.
+    static List<String> buildCommand(Flavor flavor, int intervalMillis, String address) {
+        List<String> command = new ArrayList<>();
+        command.add("ping");
+        switch (flavor) {
+            case WINDOWS:
+                command.add("-t");
+                break;
+            case IPUTILS:
+                command.add("-O");
+                command.add("-i");
+                command.add(formatSeconds(intervalMillis));
+                break;
+            default:
+                // BusyBox builds without -i still probe once per second when it is left out
+                if (intervalMillis != 1000) {
+                    command.add("-i");
+                    command.add(formatSeconds(intervalMillis));
+                }
+                break;
+        }
+        // Restarts reuse the cached address instead of having ping resolve the name again
+        command.add(address);
+        return command;
+    }
+
+    private static String formatSeconds(int millis) {
+        return String.format(Locale.ROOT, "%.3f", millis / 1000.0);
+    }
+
+    static Flavor flavor() {
+        Flavor flavor = detectedFlavor;
+        if (flavor == null) {
+            flavor = detectFlavor();
+            detectedFlavor = flavor;
+        }
+        return flavor;
+    }
+
+    // iputils answers -V with its version; BusyBox rejects it with a usage text naming itself
+    private static Flavor detectFlavor() {
+        String os = System.getProperty("os.name").toLowerCase(Locale.ROOT);
+        if (os.contains("win")) {
+            return Flavor.WINDOWS;
+        } else if (os.contains("mac") || os.contains("darwin")) {
+            return Flavor.MACOS;
+        }
+        Process process = null;
+        try {
+            process = new ProcessBuilder("ping", "-V").redirectErrorStream(true).start();
+            StringBuilder output = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null && output.length() < 4096) {
+                    output.append(line).append('\n');
+                }
+            }
+            process.waitFor(2, TimeUnit.SECONDS);
+            String text = output.toString().toLowerCase(Locale.ROOT);
+            if (text.contains("iputils")) {
+                return Flavor.IPUTILS;
+            } else if (text.contains("busybox")) {
+                return Flavor.BUSYBOX;
+            }
+        } catch (IOException e) {
+            System.err.println("Could not run ping -V: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (process != null) {
+                process.destroy();
+            }
+        }
+        return Flavor.OTHER;
+    }
+
+    // Ping checks the real user for the short-interval limits, not its capabilities
+    private static boolean isPrivileged() {
+        return "root".equals(System.getProperty("user.name"));
+    }
+}
@@ -0,0 +1,74 @@
+import java.util.BitSet;
+
+// Live/dead state of every address of a sweep as two bitmaps, indexed like SweepTargets
+public class SweepResult {
+    public static final int PENDING = 0;
+    public static final int DEAD = 1;
+    public static final int ALIVE = 2;
+
+    private final int size;
+    private final BitSet probed;
+    private final BitSet alive;
+    private int probedCount;
+    private int aliveCount;
+
+    public SweepResult(int size) {
+        this.size = size;
+        this.probed = new BitSet(size);
+        this.alive = new BitSet(size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public synchronized void record(int index, boolean isAlive) {
+        if (probed.get(index)) {
+            return;
+        }
+        probed.set(index);
+        probedCount++;
+        if (isAlive) {
+            alive.set(index);
+            aliveCount++;
+        }
+    }
+
+    public synchronized int getProbedCount() {
+        return probedCount;
+    }
+
+    public synchronized int getAliveCount() {
+        return aliveCount;
+    }
+
+    public synchronized boolean isProbed(int index) {
+        return probed.get(index);
+    }
+
+    public synchronized boolean isAlive(int index) {
+        return alive.get(index);
+    }
+
+    public synchronized boolean isProbed(int from, int to) {
+        return probed.nextClearBit(from) >= to;
+    }
+
+    // ALIVE when any address in [from, to) answered, DEAD once all of them were probed without an answer
+    public synchronized int getState(int from, int to) {
+        int firstAlive = alive.nextSetBit(from);
+        if (firstAlive >= 0 && firstAlive < to) {
+            return ALIVE;
+        }
+        return probed.nextClearBit(from) >= to ? DEAD : PENDING;
+    }
+
+    // Copies for drawing or exporting without holding the lock the probe threads write through
+    public synchronized BitSet copyProbed() {
+        return (BitSet) probed.clone();
+    }
+
+    public synchronized BitSet copyAlive() {
+        return (BitSet) alive.clone();
+    }
+}
@@ -0,0 +1,144 @@
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Probes every address of a sweep once. A fixed number of worker loops take the next index in turn, so at most
+// that many probes are in flight, and all of them share one pacing clock that holds the sweep to the global rate.
+public class SweepRunner {
+    public static final int DEFAULT_CONCURRENCY = 256;
+    public static final int DEFAULT_RATE = 1000;
+    public static final int DEFAULT_TIMEOUT = 500;
+
+    public interface Listener {
+        // Called from worker threads
+        void onResult(int index, boolean alive);
+
+        void onFinished();
+    }
+
+    private final SweepTargets targets;
+    private final SweepResult result;
+    private final ProbeEngine engine;
+    private final int timeoutMillis;
+    private final int concurrency;
+    private final long intervalNanos;
+    private final Listener listener;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicLong nextSlot = new AtomicLong();
+    private ProbeRateLimiter rateLimiter;
+    private volatile boolean running;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    // A rate of zero or less sends as fast as the workers allow
+    public SweepRunner(SweepTargets targets, ProbeEngine engine, int timeoutMillis, int concurrency, int ratePerSecond, Listener listener) {
+        this.targets = targets;
+        this.result = new SweepResult(targets.size());
+        this.engine = engine;
+        this.timeoutMillis = timeoutMillis;
+        this.concurrency = Math.max(1, concurrency);
+        this.intervalNanos = ratePerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / ratePerSecond : 0;
+        this.listener = listener;
+    }
+
+    public static SweepRunner fromConfig(ConfigurationManager configManager, SweepTargets targets, Listener listener) {
+        return new SweepRunner(targets, ProbeEngines.fromConfig(configManager),
+                configManager.getInt("sweepTimeout", DEFAULT_TIMEOUT),
+                configManager.getInt("sweepConcurrency", DEFAULT_CONCURRENCY),
+                configManager.getInt("sweepRate", DEFAULT_RATE),
+                listener);
+    }
+
+    public void start(SessionExecutor sessionExecutor) {
+        // The sweep's own rate comes on top of the cap shared with every other probe
+        rateLimiter = sessionExecutor.getRateLimiter();
+        running = true;
+        startNanos = System.nanoTime();
+        nextSlot.set(startNanos);
+        int workers = Math.min(concurrency, targets.size());
+        activeWorkers.set(workers);
+        for (int i = 0; i < workers; i++) {
+            sessionExecutor.execute(this::work);
+        }
+    }
+
+    // Probes already in flight still finish and are recorded
+    public void stop() {
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return activeWorkers.get() > 0;
+    }
+
+    public SweepTargets getTargets() {
+        return targets;
+    }
+
+    public SweepResult getResult() {
+        return result;
+    }
+
+    // Every index below this has been handed to a worker
+    public int getDispatchedCount() {
+        return Math.min(nextIndex.get(), targets.size());
+    }
+
+    public long getElapsedMillis() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        return startNanos == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(end - startNanos);
+    }
+
+    private void work() {
+        try {
+            while (running) {
+                int index = nextIndex.getAndIncrement();
+                if (index >= targets.size() || !awaitSlot()) {
+                    break;
+                }
+                boolean alive = probe(targets.get(index));
+                result.record(index, alive);
+                listener.onResult(index, alive);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Sweep worker failed: " + e.getMessage());
+        } finally {
+            if (activeWorkers.decrementAndGet() == 0) {
+                running = false;
+                endNanos = System.nanoTime();
+                listener.onFinished();
+            }
+        }
+    }
+
+    // Claims the next send slot on the shared clock and sleeps until it comes up. A slot in the past means the
+    // sweep fell behind, and it restarts from now rather than bursting to catch up.
+    private boolean awaitSlot() {
+        if (intervalNanos == 0) {
+            return true;
+        }
+        long slot = nextSlot.accumulateAndGet(intervalNanos, (previous, step) -> Math.max(previous, System.nanoTime()) + step) - intervalNanos;
+        long delay = slot - System.nanoTime();
+        if (delay > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return running;
+    }
+
+    private boolean probe(String target) {
+        try {
+            InetAddress address = HostResolver.getDefault().resolve(target);
+            return rateLimiter.acquire(address) && engine.probe(address, timeoutMillis).isSuccess();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
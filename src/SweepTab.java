@@ -0,0 +1,245 @@
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Sweeps CIDR blocks, ranges and host files once and shows every address as one pixel of a bitmap, so the result of
+// a /16 is a 256x256 picture that fills in as the probes come back. Very large sweeps fold several addresses per pixel.
+public class SweepTab extends LazyTab implements SweepRunner.Listener, UiUpdateCoalescer.Updatable {
+    private static final int MAX_PIXELS = 1 << 20;
+    private static final Color PENDING_COLOR = Color.gray(0.25);
+
+    private ConfigurationManager configManager;
+    private UiUpdateCoalescer uiUpdates;
+    private SessionExecutor sessionExecutor;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private VBox mainLayout = new VBox(10);
+    private TextArea specArea;
+    private Button startButton;
+    private Button stopButton;
+    private Label statusLabel;
+    private Label hoverLabel;
+    private ImageView imageView = new ImageView();
+
+    private SweepRunner runner;
+    private WritableImage image;
+    private int addressesPerPixel;
+    // Pixels below this are final and don't need repainting
+    private int paintedPixels;
+    private int aliveColor;
+    private int deadColor;
+
+    public SweepTab(ConfigurationManager configManager, UiUpdateCoalescer uiUpdates, SessionExecutor sessionExecutor) {
+        super("Sweep");
+        this.configManager = configManager;
+        this.uiUpdates = uiUpdates;
+        this.sessionExecutor = sessionExecutor;
+        setClosable(false);
+    }
+
+    @Override
+    protected void initializeUI() {
+        mainLayout.setAlignment(Pos.TOP_LEFT);
+        mainLayout.setPadding(new Insets(10));
+
+        specArea = new TextArea();
+        specArea.setPromptText("172.18.0.0/16, 10.0.0.1-254, 10.0.5.7, @/path/to/hosts.txt");
+        specArea.setPrefRowCount(3);
+
+        Button hostFileButton = new Button("Add Host File...");
+        hostFileButton.setOnAction(event -> {
+            File file = new FileChooser().showOpenDialog(getTabPane().getScene().getWindow());
+            if (file != null) {
+                specArea.appendText((specArea.getText().isEmpty() ? "" : "\n") + "@" + file.getAbsolutePath());
+            }
+        });
+        startButton = new Button("Start Sweep");
+        startButton.setOnAction(event -> startSweep());
+        stopButton = new Button("Stop");
+        stopButton.setDisable(true);
+        stopButton.setOnAction(event -> {
+            if (runner != null) {
+                runner.stop();
+            }
+        });
+        Button copyButton = new Button("Copy Live Hosts");
+        copyButton.setOnAction(event -> copyLiveHosts());
+
+        statusLabel = new Label("Enter CIDR blocks, ranges or host files");
+        hoverLabel = new Label();
+
+        HBox controls = new HBox(10, hostFileButton, startButton, stopButton, copyButton, statusLabel);
+        controls.setAlignment(Pos.CENTER_LEFT);
+
+        StackPane imagePane = new StackPane(imageView);
+        imagePane.setMinSize(0, 0);
+        imageView.setPreserveRatio(true);
+        imageView.setSmooth(false);
+        imageView.fitWidthProperty().bind(imagePane.widthProperty());
+        imageView.fitHeightProperty().bind(imagePane.heightProperty());
+        imageView.setOnMouseMoved(event -> showHover(event.getX(), event.getY()));
+        imageView.setOnMouseExited(event -> hoverLabel.setText(""));
+        VBox.setVgrow(imagePane, Priority.ALWAYS);
+
+        mainLayout.getChildren().addAll(specArea, controls, imagePane, hoverLabel);
+        setContent(mainLayout);
+    }
+
+    private void startSweep() {
+        if (runner != null && runner.isRunning()) {
+            return;
+        }
+        SweepTargets targets;
+        try {
+            targets = SweepTargets.parse(specArea.getText());
+        } catch (IOException | IllegalArgumentException e) {
+            statusLabel.setText("Invalid sweep: " + e.getMessage());
+            return;
+        }
+
+        int size = targets.size();
+        addressesPerPixel = (size + MAX_PIXELS - 1) / MAX_PIXELS;
+        int pixels = (size + addressesPerPixel - 1) / addressesPerPixel;
+        int width = (int) Math.ceil(Math.sqrt(pixels));
+        int height = (pixels + width - 1) / width;
+        image = new WritableImage(width, height);
+        imageView.setImage(image);
+        fillPixels(0, width * height, toArgb(Color.TRANSPARENT));
+        fillPixels(0, pixels, toArgb(PENDING_COLOR));
+        paintedPixels = 0;
+        aliveColor = toArgb(configManager.getValue("reachableColor", "GREEN", Color::valueOf));
+        deadColor = toArgb(configManager.getValue("unreachableColor", "RED", Color::valueOf).darker());
+
+        runner = SweepRunner.fromConfig(configManager, targets, this);
+        startButton.setDisable(true);
+        stopButton.setDisable(false);
+        runner.start(sessionExecutor);
+        applyUpdate();
+    }
+
+    @Override
+    public void onResult(int index, boolean alive) {
+        uiUpdates.publish(this, dirty.compareAndSet(false, true));
+    }
+
+    @Override
+    public void onFinished() {
+        uiUpdates.publish(this, dirty.compareAndSet(false, true));
+    }
+
+    // Indexes are handed out in order, so only the pixels between the oldest unfinished one and the newest
+    // dispatched one can have changed since the last frame
+    @Override
+    public void applyUpdate() {
+        dirty.set(false);
+        SweepRunner current = runner;
+        if (current == null) {
+            return;
+        }
+        SweepResult result = current.getResult();
+        int size = result.size();
+        int lastPixel = (current.getDispatchedCount() + addressesPerPixel - 1) / addressesPerPixel;
+        PixelWriter writer = image.getPixelWriter();
+        int width = (int) image.getWidth();
+        boolean settled = true;
+        for (int pixel = paintedPixels; pixel < lastPixel; pixel++) {
+            int from = pixel * addressesPerPixel;
+            int to = Math.min(size, from + addressesPerPixel);
+            int state = result.getState(from, to);
+            if (state != SweepResult.PENDING) {
+                writer.setArgb(pixel % width, pixel / width, state == SweepResult.ALIVE ? aliveColor : deadColor);
+            }
+            if (settled && result.isProbed(from, to)) {
+                paintedPixels = pixel + 1;
+            } else {
+                settled = false;
+            }
+        }
+
+        boolean running = current.isRunning();
+        long elapsed = Math.max(1, current.getElapsedMillis());
+        statusLabel.setText(result.getProbedCount() + " / " + size + " probed, " + result.getAliveCount() + " alive, "
+                + result.getProbedCount() * 1000L / elapsed + " probes/s, " + formatElapsed(elapsed)
+                + (running ? "" : result.getProbedCount() < size ? " (stopped)" : " (done)"));
+        startButton.setDisable(running);
+        stopButton.setDisable(!running);
+    }
+
+    private void showHover(double x, double y) {
+        if (runner == null || image == null) {
+            return;
+        }
+        double scale = imageView.getBoundsInLocal().getWidth() / image.getWidth();
+        int column = (int) (x / scale);
+        int row = (int) (y / scale);
+        int from = (row * (int) image.getWidth() + column) * addressesPerPixel;
+        SweepResult result = runner.getResult();
+        if (column >= image.getWidth() || from >= result.size()) {
+            hoverLabel.setText("");
+            return;
+        }
+        int to = Math.min(result.size(), from + addressesPerPixel);
+        String[] states = {"pending", "no reply", "alive"};
+        String addresses = runner.getTargets().get(from) + (to - from > 1 ? " - " + runner.getTargets().get(to - 1) : "");
+        hoverLabel.setText(addresses + ": " + states[result.getState(from, to)]);
+    }
+
+    private void copyLiveHosts() {
+        if (runner == null) {
+            return;
+        }
+        BitSet alive = runner.getResult().copyAlive();
+        StringBuilder sb = new StringBuilder();
+        for (int index = alive.nextSetBit(0); index >= 0; index = alive.nextSetBit(index + 1)) {
+            sb.append(runner.getTargets().get(index)).append(System.lineSeparator());
+        }
+        ClipboardContent content = new ClipboardContent();
+        content.putString(sb.toString());
+        Clipboard.getSystemClipboard().setContent(content);
+        statusLabel.setText(alive.cardinality() + " live hosts copied");
+    }
+
+    private void fillPixels(int from, int to, int argb) {
+        PixelWriter writer = image.getPixelWriter();
+        int width = (int) image.getWidth();
+        for (int pixel = from; pixel < to; pixel++) {
+            writer.setArgb(pixel % width, pixel / width, argb);
+        }
+    }
+
+    private static int toArgb(Color color) {
+        return ((int) Math.round(color.getOpacity() * 255) << 24)
+                | ((int) Math.round(color.getRed() * 255) << 16)
+                | ((int) Math.round(color.getGreen() * 255) << 8)
+                | (int) Math.round(color.getBlue() * 255);
+    }
+
+    private static String formatElapsed(long millis) {
+        long seconds = millis / 1000;
+        return seconds >= 60 ? seconds / 60 + "m " + seconds % 60 + "s" : seconds + "s";
+    }
+
+    public void shutdown() {
+        if (runner != null) {
+            runner.stop();
+        }
+    }
+}
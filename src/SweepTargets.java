@@ -0,0 +1,183 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * The addresses of a sweep, kept as IPv4 ranges and host names and only turned into single targets when asked for
+ * by index, so a /16 costs a few bytes instead of 65536 strings. Accepts, one per line or separated by commas:
+ *
+ *   172.18.0.0/16        CIDR block
+ *   10.0.0.1-10.0.3.254  range, or 10.0.0.1-254 for the last octet
+ *   10.0.0.7, host.lan   single addresses and names
+ *   @/path/hosts.txt     host-list file holding any of the above, # starts a comment
+ */
+public class SweepTargets {
+    // One bit per address in the result bitmap, so 16M addresses still fit in 4 MB
+    public static final int MAX_ADDRESSES = 1 << 24;
+
+    private final List<long[]> ranges = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    // Index of the first address of each range, names come after the last range
+    private final List<Long> offsets = new ArrayList<>();
+    private long rangeSize;
+
+    private SweepTargets() {
+    }
+
+    public static SweepTargets parse(String spec) throws IOException {
+        SweepTargets targets = new SweepTargets();
+        targets.addSpec(spec, 0);
+        if (targets.size() == 0) {
+            throw new IllegalArgumentException("Nothing to sweep");
+        }
+        return targets;
+    }
+
+    public int size() {
+        return (int) (rangeSize + names.size());
+    }
+
+    // The address or host name at the index, formatted the way ProbeSession expects a target
+    public String get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        if (index >= rangeSize) {
+            return names.get((int) (index - rangeSize));
+        }
+        int low = 0;
+        int high = offsets.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets.get(mid) <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return formatIpv4(ranges.get(low)[0] + index - offsets.get(low));
+    }
+
+    private void addSpec(String spec, int depth) throws IOException {
+        for (String token : spec.split("[,\\s]+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (token.startsWith("@")) {
+                if (depth > 0) {
+                    throw new IllegalArgumentException("Host files can't include other host files: " + token);
+                }
+                addFile(Paths.get(token.substring(1)));
+            } else {
+                addToken(token);
+            }
+        }
+    }
+
+    private void addFile(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comment = line.indexOf('#');
+                addSpec(comment >= 0 ? line.substring(0, comment) : line, 1);
+            }
+        }
+    }
+
+    private void addToken(String token) {
+        int slash = token.indexOf('/');
+        int dash = token.indexOf('-');
+        if (slash > 0 && parseIpv4(token.substring(0, slash)) >= 0) {
+            long base = parseIpv4(token.substring(0, slash));
+            int prefix = parseNumber(token.substring(slash + 1), 32, token);
+            long blockSize = 1L << (32 - prefix);
+            long first = base & ~(blockSize - 1) & 0xFFFFFFFFL;
+            // Leave out the network and broadcast addresses of ordinary subnets
+            if (prefix <= 30) {
+                addRange(first + 1, first + blockSize - 2, token);
+            } else {
+                addRange(first, first + blockSize - 1, token);
+            }
+        } else if (dash > 0 && parseIpv4(token.substring(0, dash)) >= 0) {
+            long first = parseIpv4(token.substring(0, dash));
+            String end = token.substring(dash + 1);
+            long last = end.indexOf('.') >= 0 ? parseIpv4(end) : (first & ~0xFFL) | parseNumber(end, 255, token);
+            if (last < first) {
+                throw new IllegalArgumentException("Invalid range: " + token);
+            }
+            addRange(first, last, token);
+        } else if (parseIpv4(token) >= 0) {
+            long address = parseIpv4(token);
+            addRange(address, address, token);
+        } else {
+            checkCapacity(1, token);
+            names.add(token);
+        }
+    }
+
+    private void addRange(long first, long last, String token) {
+        checkCapacity(last - first + 1, token);
+        // Consecutive entries such as the lines of a host file collapse into one range
+        if (!ranges.isEmpty() && ranges.get(ranges.size() - 1)[1] + 1 == first) {
+            ranges.get(ranges.size() - 1)[1] = last;
+        } else {
+            ranges.add(new long[]{first, last});
+            offsets.add(rangeSize);
+        }
+        rangeSize += last - first + 1;
+    }
+
+    private void checkCapacity(long count, String token) {
+        if (size() + count > MAX_ADDRESSES) {
+            throw new IllegalArgumentException("Sweep is larger than " + MAX_ADDRESSES + " addresses at " + token);
+        }
+    }
+
+    private static int parseNumber(String value, int max, String token) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number >= 0 && number <= max) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid sweep entry: " + token);
+    }
+
+    // -1 when the text isn't a dotted IPv4 address
+    static long parseIpv4(String text) {
+        String[] parts = text.split("\\.", -1);
+        if (parts.length != 4) {
+            return -1;
+        }
+        long address = 0;
+        for (String part : parts) {
+            if (part.isEmpty() || part.length() > 3) {
+                return -1;
+            }
+            int octet = 0;
+            for (int i = 0; i < part.length(); i++) {
+                char c = part.charAt(i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                octet = octet * 10 + (c - '0');
+            }
+            if (octet > 255) {
+                return -1;
+            }
+            address = (address << 8) | octet;
+        }
+        return address;
+    }
+
+    static String formatIpv4(long address) {
+        return ((address >> 24) & 0xFF) + "." + ((address >> 16) & 0xFF) + "." + ((address >> 8) & 0xFF) + "." + (address & 0xFF);
+    }
+}
@@ -0,0 +1,144 @@
+import javafx.beans.property.ReadOnlyLongProperty;
+import javafx.beans.property.ReadOnlyLongWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// One monitored target in the table view. Probe threads record into LatencyStats, the FX thread copies it into properties
+public class TargetRow implements UiUpdateCoalescer.Updatable {
+    private final String target;
+    private final UiUpdateCoalescer coalescer;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final LatencyStats stats = new LatencyStats();
+    private volatile String status = "Idle";
+    private volatile int intervalMillis;
+    private volatile AdaptiveInterval adaptiveInterval;
+
+    private final ReadOnlyStringWrapper statusProperty = new ReadOnlyStringWrapper("Idle");
+    private final ReadOnlyLongWrapper successProperty = new ReadOnlyLongWrapper();
+    private final ReadOnlyLongWrapper failureProperty = new ReadOnlyLongWrapper();
+    private final ReadOnlyStringWrapper intervalProperty = new ReadOnlyStringWrapper("-");
+    private final ReadOnlyStringWrapper minProperty = new ReadOnlyStringWrapper("-");
+    private final ReadOnlyStringWrapper maxProperty = new ReadOnlyStringWrapper("-");
+    private final ReadOnlyStringWrapper avgProperty = new ReadOnlyStringWrapper("-");
+    private final ReadOnlyStringWrapper p50Property = new ReadOnlyStringWrapper("-");
+    private final ReadOnlyStringWrapper p95Property = new ReadOnlyStringWrapper("-");
+    private final ReadOnlyStringWrapper p99Property = new ReadOnlyStringWrapper("-");
+    private final ReadOnlyStringWrapper jitterProperty = new ReadOnlyStringWrapper("-");
+    private final ReadOnlyStringWrapper loss1mProperty = new ReadOnlyStringWrapper("-");
+    private final ReadOnlyStringWrapper loss5mProperty = new ReadOnlyStringWrapper("-");
+    private final ReadOnlyStringWrapper loss1hProperty = new ReadOnlyStringWrapper("-");
+
+    public TargetRow(String target, UiUpdateCoalescer coalescer) {
+        this.target = target;
+        this.coalescer = coalescer;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public LatencyStats getStats() {
+        return stats;
+    }
+
+    public void record(ProbeResult result) {
+        stats.record(result, System.currentTimeMillis());
+        if (result.isSuccess()) {
+            status = "Up";
+        } else {
+            status = result.getStatus() == ProbeResult.Status.ERROR ? "Error" : "Down";
+        }
+        coalescer.publish(this, dirty.compareAndSet(false, true));
+    }
+
+    // Shown in the interval column; the adaptive interval, when there is one, wins over the fixed one
+    public void setInterval(int intervalMillis, AdaptiveInterval adaptiveInterval) {
+        this.intervalMillis = intervalMillis;
+        this.adaptiveInterval = adaptiveInterval;
+        coalescer.publish(this, dirty.compareAndSet(false, true));
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+        coalescer.publish(this, dirty.compareAndSet(false, true));
+    }
+
+    @Override
+    public void applyUpdate() {
+        dirty.set(false);
+        long now = System.currentTimeMillis();
+        statusProperty.set(status);
+        successProperty.set(stats.getReceived());
+        failureProperty.set(stats.getLost());
+        AdaptiveInterval adaptive = adaptiveInterval;
+        intervalProperty.set(adaptive != null ? adaptive.describe() : intervalMillis > 0 ? intervalMillis + " ms" : "-");
+        minProperty.set(LatencyStats.formatMillis(stats.getMinMicros()));
+        maxProperty.set(LatencyStats.formatMillis(stats.getMaxMicros()));
+        avgProperty.set(LatencyStats.formatMillis((long) stats.getMeanMicros()));
+        p50Property.set(LatencyStats.formatMillis(stats.getValueAtPercentile(50)));
+        p95Property.set(LatencyStats.formatMillis(stats.getValueAtPercentile(95)));
+        p99Property.set(LatencyStats.formatMillis(stats.getValueAtPercentile(99)));
+        jitterProperty.set(stats.getReceived() < 2 ? "-" : LatencyStats.formatMillis((long) stats.getJitterMicros()));
+        loss1mProperty.set(LatencyStats.formatPercent(stats.getLossPercent(LatencyStats.WINDOW_1_MINUTE, now)));
+        loss5mProperty.set(LatencyStats.formatPercent(stats.getLossPercent(LatencyStats.WINDOW_5_MINUTES, now)));
+        loss1hProperty.set(LatencyStats.formatPercent(stats.getLossPercent(LatencyStats.WINDOW_1_HOUR, now)));
+    }
+
+    public ReadOnlyStringProperty statusProperty() {
+        return statusProperty.getReadOnlyProperty();
+    }
+
+    public ReadOnlyLongProperty successProperty() {
+        return successProperty.getReadOnlyProperty();
+    }
+
+    public ReadOnlyLongProperty failureProperty() {
+        return failureProperty.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty intervalProperty() {
+        return intervalProperty.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty minProperty() {
+        return minProperty.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty maxProperty() {
+        return maxProperty.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty avgProperty() {
+        return avgProperty.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty p50Property() {
+        return p50Property.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty p95Property() {
+        return p95Property.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty p99Property() {
+        return p99Property.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty jitterProperty() {
+        return jitterProperty.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty loss1mProperty() {
+        return loss1mProperty.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty loss5mProperty() {
+        return loss5mProperty.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty loss1hProperty() {
+        return loss1hProperty.getReadOnlyProperty();
+    }
+}
@@ -0,0 +1,42 @@
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NoRouteToHostException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+
+public class TcpProbeEngine implements ProbeEngine {
+    private final int port;
+
+    public TcpProbeEngine(int port) {
+        this.port = port;
+    }
+
+    @Override
+    public ProbeResult probe(InetAddress address, int timeoutMillis) {
+        long start = System.nanoTime();
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(address, port), timeoutMillis);
+            return ProbeResult.reply(elapsedMicros(start));
+        } catch (ConnectException e) {
+            // A refused connection still means the host answered with a RST
+            return ProbeResult.reply(elapsedMicros(start));
+        } catch (NoRouteToHostException e) {
+            return ProbeResult.unreachable();
+        } catch (SocketTimeoutException e) {
+            return ProbeResult.timeout();
+        } catch (IOException e) {
+            return ProbeResult.error(e.getMessage());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return ProbeEngines.TCP;
+    }
+
+    private static long elapsedMicros(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000;
+    }
+}
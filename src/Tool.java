@@ -12,21 +12,62 @@ import java.io.InputStream;
 
 public class Tool extends Application {
 
+    private ConfigurationManager configManager;
+    private SessionLogWriter logWriter;
+    private SampleStore sampleStore;
+    private LogMaintenanceService logMaintenance;
+    private PresetStore presetStore;
+    private HistoryTab historyTab;
+    private SweepTab sweepTab;
+    private UiUpdateCoalescer uiUpdates;
+    private ProbeScheduler probeScheduler;
+    private SessionExecutor sessionExecutor;
+    private MetricsServer metricsServer;
+    private AlertEngine alertEngine;
+
     @Override
     public void start(Stage primaryStage) {
-        ConfigurationManager configManager = new ConfigurationManager();
+        StartupTimer.mark("toolkit");
+        configManager = new ConfigurationManager();
+        StartupTimer.mark("config");
+        logWriter = SessionLogWriter.fromConfig(configManager);
+        sampleStore = new SampleStore();
+        logMaintenance = LogMaintenanceService.fromConfig(configManager, logWriter, sampleStore);
+        logMaintenance.start();
+        uiUpdates = new UiUpdateCoalescer();
+        uiUpdates.start();
+        probeScheduler = ProbeScheduler.fromConfig(configManager);
+        sessionExecutor = SessionExecutor.fromConfig(configManager, probeScheduler);
+        MetricsRegistry metrics = new MetricsRegistry();
+        alertEngine = AlertEngine.fromConfig(configManager);
+        metrics.registerProcessMetrics(probeScheduler, logWriter, sampleStore, HostResolver.getDefault(), sessionExecutor.getRateLimiter(), alertEngine);
+        metrics.addValue("pingpanel_ui_coalesced_updates", "counter", uiUpdates::getCoalescedUpdates);
+        metricsServer = MetricsServer.fromConfig(configManager, metrics);
+        StartupTimer.mark("services");
+
+        presetStore = new PresetStore(configManager);
+        MainTab mainTab = new MainTab(configManager, logWriter, sampleStore, uiUpdates, sessionExecutor, metrics, presetStore, alertEngine);
+        PresetTab presetTab = new PresetTab(presetStore);
 
-        MainTab mainTab = new MainTab(configManager, null);
-        PresetTab presetTab = new PresetTab(configManager, mainTab);
-        mainTab.setPresetUpdateListener(presetTab);
+        MonitorTab monitorTab = new MonitorTab(configManager, logWriter, sampleStore, uiUpdates, sessionExecutor, metrics, alertEngine);
+        historyTab = new HistoryTab(configManager, sampleStore);
+        sweepTab = new SweepTab(configManager, uiUpdates, sessionExecutor);
 
         TabPane tabPane = new TabPane();
-        tabPane.getTabs().addAll(mainTab, new SettingsTab(configManager), presetTab);
+        tabPane.getTabs().addAll(mainTab, monitorTab, historyTab, sweepTab, new SettingsTab(configManager), presetTab);
+        StartupTimer.mark("tabs");
 
-        double width = Double.parseDouble(configManager.getProperty("windowWidth", "800"));
-        double height = Double.parseDouble(configManager.getProperty("windowHeight", "600"));
+        double width = configManager.getValue("windowWidth", "800", Double::valueOf);
+        double height = configManager.getValue("windowHeight", "600", Double::valueOf);
 
         Scene scene = new Scene(tabPane, width, height);
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                StartupTimer.reportFirstFrame();
+                scene.removePostLayoutPulseListener(this);
+            }
+        });
         primaryStage.setScene(scene);
         primaryStage.setTitle("Palamedes");
 
@@ -38,7 +79,57 @@ public class Tool extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        if (uiUpdates != null) {
+            uiUpdates.stop();
+        }
+        if (metricsServer != null) {
+            metricsServer.shutdown();
+        }
+        if (historyTab != null) {
+            historyTab.shutdown();
+        }
+        if (sweepTab != null) {
+            sweepTab.shutdown();
+        }
+        if (presetStore != null) {
+            presetStore.shutdown();
+        }
+        if (logMaintenance != null) {
+            logMaintenance.shutdown();
+        }
+        if (probeScheduler != null) {
+            probeScheduler.shutdown();
+        }
+        if (sessionExecutor != null) {
+            sessionExecutor.shutdown();
+        }
+        if (alertEngine != null) {
+            alertEngine.shutdown();
+        }
+        // Flush whatever the probe threads queued before the JVM exits
+        if (logWriter != null) {
+            logWriter.shutdown();
+        }
+        if (sampleStore != null) {
+            sampleStore.shutdown();
+        }
+        // Settings edited in the last moments are still waiting for the write-behind
+        if (configManager != null) {
+            configManager.shutdown();
+        }
+    }
+
     public static void main(String[] args) {
+        StartupTimer.begin();
+        // Headless runs never reach launch(), so the FX toolkit is not initialised
+        for (String arg : args) {
+            if ("--headless".equals(arg)) {
+                HeadlessMonitor.main(args);
+                return;
+            }
+        }
         setupLogging();
         launch(args);
     }
@@ -0,0 +1,52 @@
+import javafx.animation.AnimationTimer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+public class UiUpdateCoalescer extends AnimationTimer {
+
+    public interface Updatable {
+        // Runs on the FX thread once per frame at most, applying everything published since the last frame
+        void applyUpdate();
+    }
+
+    private final Queue<Updatable> dirtyQueue = new ConcurrentLinkedQueue<>();
+    private final LongAdder publishedUpdates = new LongAdder();
+    private final LongAdder appliedUpdates = new LongAdder();
+
+    // Called from probe threads. Only the first publish since the last frame queues the target
+    public void publish(Updatable target, boolean firstSinceLastFrame) {
+        publishedUpdates.increment();
+        if (firstSinceLastFrame) {
+            dirtyQueue.add(target);
+        }
+    }
+
+    @Override
+    public void handle(long now) {
+        // Only drain what was queued before this frame so a busy target can't starve the pulse
+        int pending = dirtyQueue.size();
+        for (int i = 0; i < pending; i++) {
+            Updatable target = dirtyQueue.poll();
+            if (target == null) {
+                break;
+            }
+            target.applyUpdate();
+            appliedUpdates.increment();
+        }
+    }
+
+    public long getPublishedUpdates() {
+        return publishedUpdates.sum();
+    }
+
+    public long getAppliedUpdates() {
+        return appliedUpdates.sum();
+    }
+
+    // Updates that were folded into a later frame instead of costing their own FX event
+    public long getCoalescedUpdates() {
+        return Math.max(0, publishedUpdates.sum() - appliedUpdates.sum());
+    }
+}
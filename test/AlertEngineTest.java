@@ -0,0 +1,250 @@
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Rule state is driven with made-up timestamps; actions go to a webhook stub on the loopback interface
+class AlertEngineTest {
+    private static final String TARGET = "10.0.0.1";
+
+    private HttpServer server;
+    private ExecutorService handlers;
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void stopServer() {
+        if (server != null) {
+            server.stop(0);
+            handlers.shutdownNow();
+        }
+    }
+
+    @Test
+    void failuresFireAfterThresholdAndClearAfterReplies() {
+        AlertEngine engine = new AlertEngine(List.of(rule(AlertRule.Type.FAILURES, 3, 2, 300, 1, 0, null)));
+        long now = 0;
+        engine.record(TARGET, ProbeResult.timeout(), now++);
+        engine.record(TARGET, ProbeResult.timeout(), now++);
+        engine.record(TARGET, ProbeResult.reply(1000), now++);
+        engine.record(TARGET, ProbeResult.timeout(), now++);
+        engine.record(TARGET, ProbeResult.timeout(), now++);
+        assertEquals(0, engine.getFiringAlerts(), "a reply resets the failure count");
+        engine.record(TARGET, ProbeResult.timeout(), now++);
+        assertEquals(1, engine.getFiringAlerts());
+        assertEquals(1, engine.getFiredAlerts());
+        // One reply is below the clear level of two
+        engine.record(TARGET, ProbeResult.reply(1000), now++);
+        engine.record(TARGET, ProbeResult.timeout(), now++);
+        engine.record(TARGET, ProbeResult.reply(1000), now++);
+        assertEquals(1, engine.getFiringAlerts());
+        engine.record(TARGET, ProbeResult.reply(1000), now);
+        assertEquals(0, engine.getFiringAlerts());
+        assertEquals(1, engine.getFiredAlerts());
+    }
+
+    @Test
+    void lossWaitsForMinSamplesAndUsesHysteresis() {
+        // Fires above 50% loss, clears at 20% or less
+        AlertEngine engine = new AlertEngine(List.of(rule(AlertRule.Type.LOSS, 50, 20, 60, 4, 0, null)));
+        long now = 0;
+        for (int i = 0; i < 3; i++) {
+            engine.record(TARGET, ProbeResult.timeout(), now += 1000);
+        }
+        assertEquals(0, engine.getFiringAlerts(), "three samples are below minSamples");
+        engine.record(TARGET, ProbeResult.timeout(), now += 1000);
+        assertEquals(1, engine.getFiringAlerts());
+        // Errors never reached the network and are left out of the window
+        for (int i = 0; i < 20; i++) {
+            engine.record(TARGET, ProbeResult.error("no route"), now += 1000);
+        }
+        // 4 lost of 10 is 40%: below the threshold but above the clear level
+        for (int i = 0; i < 6; i++) {
+            engine.record(TARGET, ProbeResult.reply(1000), now += 1000);
+        }
+        assertEquals(1, engine.getFiringAlerts());
+        // 4 lost of 20 is 20%
+        for (int i = 0; i < 10; i++) {
+            engine.record(TARGET, ProbeResult.reply(1000), now += 1000);
+        }
+        assertEquals(0, engine.getFiringAlerts());
+    }
+
+    @Test
+    void lossWindowExpiresOldSamples() {
+        AlertEngine engine = new AlertEngine(List.of(rule(AlertRule.Type.LOSS, 50, 50, 60, 1, 0, null)));
+        long now = 0;
+        for (int i = 0; i < 30; i++) {
+            engine.record(TARGET, ProbeResult.reply(1000), now += 1000);
+        }
+        // 30 losses join 30 replies in the 60 s window, which is exactly 50%
+        for (int i = 0; i < 30; i++) {
+            engine.record(TARGET, ProbeResult.timeout(), now += 1000);
+        }
+        assertEquals(0, engine.getFiringAlerts());
+        // The next loss pushes the oldest reply out of the window
+        engine.record(TARGET, ProbeResult.timeout(), now += 1000);
+        assertEquals(1, engine.getFiringAlerts());
+        // After a gap longer than the window only the new reply is left
+        engine.record(TARGET, ProbeResult.reply(1000), now + 120_000);
+        assertEquals(0, engine.getFiringAlerts());
+    }
+
+    @Test
+    void latencyCountsRepliesAboveThePercentile() {
+        // p50 above 100 ms fires, p50 at or below 50 ms clears
+        AlertEngine engine = new AlertEngine(List.of(new AlertRule("slow", AlertRule.Type.LATENCY, 100, 50, 60, 50, 4, 0,
+                Collections.emptyList(), null, null)));
+        long now = 0;
+        engine.record(TARGET, ProbeResult.reply(10_000), now += 1000);
+        engine.record(TARGET, ProbeResult.reply(200_000), now += 1000);
+        engine.record(TARGET, ProbeResult.reply(200_000), now += 1000);
+        assertEquals(0, engine.getFiringAlerts(), "three replies are below minSamples");
+        engine.record(TARGET, ProbeResult.reply(200_000), now += 1000);
+        assertEquals(1, engine.getFiringAlerts());
+        // Timeouts are left to the loss rules
+        for (int i = 0; i < 10; i++) {
+            engine.record(TARGET, ProbeResult.timeout(), now += 1000);
+        }
+        // 75 ms replies are under the threshold but not under the clear level
+        for (int i = 0; i < 10; i++) {
+            engine.record(TARGET, ProbeResult.reply(75_000), now += 1000);
+        }
+        assertEquals(1, engine.getFiringAlerts());
+        for (int i = 0; i < 14; i++) {
+            engine.record(TARGET, ProbeResult.reply(20_000), now += 1000);
+        }
+        assertEquals(0, engine.getFiringAlerts());
+    }
+
+    @Test
+    void heldBackAlertIsSentOnceTheCooldownEnds() throws IOException {
+        startServer(204, 0);
+        AlertEngine engine = new AlertEngine(List.of(rule(AlertRule.Type.FAILURES, 1, 1, 300, 1, 60, webhookUrl())));
+        engine.record(TARGET, ProbeResult.timeout(), 0);
+        engine.record(TARGET, ProbeResult.reply(1000), 1000);
+        // Fires again within the 60 s cooldown
+        engine.record(TARGET, ProbeResult.timeout(), 2000);
+        assertEquals(1, engine.getFiringAlerts());
+        assertEquals(1, engine.getFiredAlerts());
+        assertEquals(1, engine.getSuppressedAlerts());
+        engine.record(TARGET, ProbeResult.timeout(), 30_000);
+        assertEquals(1, engine.getFiredAlerts());
+        // Still down once the cooldown is over, so the alert goes out now and its resolution follows
+        engine.record(TARGET, ProbeResult.timeout(), 62_000);
+        assertEquals(2, engine.getFiredAlerts());
+        engine.record(TARGET, ProbeResult.reply(1000), 63_000);
+        engine.shutdown();
+        assertEquals(4, bodies.size());
+        assertTrue(bodies.get(2).contains("\"state\":\"firing\""), bodies.get(2));
+        assertTrue(bodies.get(2).contains("\"timestamp\":62000"), bodies.get(2));
+        assertTrue(bodies.get(3).contains("\"state\":\"resolved\""), bodies.get(3));
+        assertEquals(1, engine.getSuppressedAlerts());
+    }
+
+    @Test
+    void heldBackAlertThatClearsIsNeverSent() throws IOException {
+        startServer(204, 0);
+        AlertEngine engine = new AlertEngine(List.of(rule(AlertRule.Type.FAILURES, 1, 1, 300, 1, 60, webhookUrl())));
+        engine.record(TARGET, ProbeResult.timeout(), 0);
+        engine.record(TARGET, ProbeResult.reply(1000), 1000);
+        engine.record(TARGET, ProbeResult.timeout(), 2000);
+        engine.record(TARGET, ProbeResult.reply(1000), 3000);
+        engine.record(TARGET, ProbeResult.reply(1000), 70_000);
+        engine.shutdown();
+        assertEquals(0, engine.getFiringAlerts());
+        assertEquals(1, engine.getFiredAlerts());
+        assertEquals(1, engine.getSuppressedAlerts());
+        assertEquals(2, bodies.size());
+    }
+
+    @Test
+    void webhookGetsTheAlertAsJson() throws IOException {
+        startServer(200, 0);
+        AlertEngine engine = new AlertEngine(List.of(new AlertRule("gateway \"down\"", AlertRule.Type.FAILURES, 2, 1, 300, 95, 1,
+                300, List.of(TARGET), null, webhookUrl())));
+        engine.record(TARGET, ProbeResult.timeout(), 1000);
+        engine.record(TARGET, ProbeResult.timeout(), 2000);
+        // Rules limited to other targets never see these
+        engine.record("10.0.0.2", ProbeResult.timeout(), 2000);
+        engine.record("10.0.0.2", ProbeResult.timeout(), 3000);
+        engine.shutdown();
+        assertEquals(List.of("{\"rule\":\"gateway \\\"down\\\"\",\"target\":\"10.0.0.1\",\"state\":\"firing\",\"type\":\"failures\""
+                + ",\"value\":2,\"threshold\":2,\"message\":\"2 probes in a row failed\",\"timestamp\":2000}"), bodies);
+        assertEquals(0, engine.getFailedActions());
+    }
+
+    @Test
+    void webhookErrorStatusCountsAsFailed() throws IOException {
+        startServer(500, 0);
+        AlertEngine engine = new AlertEngine(List.of(rule(AlertRule.Type.FAILURES, 1, 1, 300, 1, 0, webhookUrl())));
+        engine.record(TARGET, ProbeResult.timeout(), 0);
+        engine.record(TARGET, ProbeResult.reply(1000), 1000);
+        engine.shutdown();
+        assertEquals(2, bodies.size());
+        assertEquals(2, engine.getFailedActions());
+    }
+
+    @Test
+    void webhookTimeoutCountsAsFailed() throws IOException {
+        CountDownLatch release = startServer(200, 1);
+        AlertEngine engine = new AlertEngine(List.of(rule(AlertRule.Type.FAILURES, 1, 1, 300, 1, 0, webhookUrl())), 200);
+        try {
+            long start = System.nanoTime();
+            engine.record(TARGET, ProbeResult.timeout(), 0);
+            engine.shutdown();
+            assertEquals(1, engine.getFailedActions());
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(4), "the webhook waited past its timeout");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static AlertRule rule(AlertRule.Type type, double threshold, double clear, int windowSeconds, int minSamples,
+                                  int cooldownSeconds, String webhook) {
+        return new AlertRule("rule", type, threshold, clear, windowSeconds, 95, minSamples, cooldownSeconds,
+                Collections.emptyList(), null, webhook);
+    }
+
+    // Answers every POST with the status, after holding the first `stalled` requests until the latch is released
+    private CountDownLatch startServer(int status, int stalled) throws IOException {
+        CountDownLatch release = new CountDownLatch(stalled);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        handlers = Executors.newCachedThreadPool();
+        server.setExecutor(handlers);
+        server.createContext("/alerts", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                bodies.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            if (release.getCount() > 0) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        return release;
+    }
+
+    private String webhookUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/alerts";
+    }
+}
@@ -0,0 +1,188 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the parser over the ping output corpus the benchmarks use, one expectation per corpus line
+class PingOutputParserTest {
+    private static final int NONE = PingOutputParser.NONE;
+    private static final int REPLY = PingOutputParser.REPLY;
+    private static final int TIMEOUT = PingOutputParser.TIMEOUT;
+    private static final int UNREACHABLE = PingOutputParser.UNREACHABLE;
+    private static final int TTL_EXCEEDED = PingOutputParser.TTL_EXCEEDED;
+
+    // Kind, RTT in microseconds and TTL for each line of ping-corpus.txt, in order
+    private static final long[][] EXPECTED = {
+            // Linux iputils
+            {NONE, -1, -1},
+            {REPLY, 12300, 117},
+            {REPLY, 11900, 117},
+            {REPLY, 14100, 117},
+            {REPLY, 12000, 117},
+            {TIMEOUT, -1, -1},
+            {REPLY, 102000, 117},
+            {UNREACHABLE, -1, -1},
+            {TTL_EXCEEDED, -1, -1},
+            {REPLY, 45, 64},
+            {REPLY, 61, 64},
+            {NONE, -1, -1},
+            {NONE, -1, -1},
+            {NONE, -1, -1},
+            {NONE, -1, -1},
+            // BusyBox and macOS
+            {NONE, -1, -1},
+            {REPLY, 9876, 57},
+            {REPLY, 10104, 57},
+            {REPLY, 9512, 57},
+            {TIMEOUT, -1, -1},
+            {REPLY, 10033, 57},
+            {UNREACHABLE, -1, -1},
+            {NONE, -1, -1},
+            // Windows
+            {NONE, -1, -1},
+            {NONE, -1, -1},
+            {REPLY, 1000, 64},
+            {REPLY, 1000, 64},
+            {REPLY, 3000, 64},
+            {TIMEOUT, -1, -1},
+            {UNREACHABLE, -1, -1},
+            {TTL_EXCEEDED, -1, -1},
+            {REPLY, 2000, 64},
+            {REPLY, 48000, 64},
+            {NONE, -1, -1},
+            {NONE, -1, -1},
+            {NONE, -1, -1},
+            {NONE, -1, -1},
+            {NONE, -1, -1},
+            // IPv6, host names and usec
+            {REPLY, 312, 64},
+            {REPLY, 13700, 115},
+            {REPLY, 87400, 52},
+            {REPLY, 88000, 52},
+            {REPLY, 250, 255},
+            // German, French, Spanish, Portuguese and Italian Windows
+            {REPLY, 2000, 64},
+            {REPLY, 1000, 64},
+            {TIMEOUT, -1, -1},
+            {UNREACHABLE, -1, -1},
+            {TTL_EXCEEDED, -1, -1},
+            {REPLY, 5000, 128},
+            {TIMEOUT, -1, -1},
+            {UNREACHABLE, -1, -1},
+            {REPLY, 14000, 56},
+            {TIMEOUT, -1, -1},
+            {TTL_EXCEEDED, -1, -1},
+            {REPLY, 7000, 64},
+            {TIMEOUT, -1, -1},
+            {REPLY, 3000, 64},
+            {TIMEOUT, -1, -1},
+            // Upper case
+            {REPLY, 5000, 64},
+            {TIMEOUT, -1, -1},
+            {REPLY, 1250, 63},
+            {UNREACHABLE, -1, -1},
+            // Name resolution failures are not probe results
+            {NONE, -1, -1},
+            {NONE, -1, -1},
+    };
+
+    @Test
+    void classifiesEveryCorpusLine() throws IOException {
+        List<String> lines = loadCorpus();
+        assertEquals(EXPECTED.length, lines.size(), "corpus and expectations are out of step");
+        PingOutputParser parser = new PingOutputParser();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            String where = "line " + (i + 1) + ": " + line;
+            assertEquals(EXPECTED[i][0], parser.parse(line), where);
+            assertEquals(EXPECTED[i][0], parser.getKind(), where);
+            assertEquals(EXPECTED[i][1], parser.getRttMicros(), where);
+            assertEquals(EXPECTED[i][2], parser.getTtl(), where);
+            if (EXPECTED[i][0] == NONE) {
+                assertNull(parser.toProbeResult(), where);
+            } else {
+                assertNotNull(parser.toProbeResult(), where);
+            }
+        }
+    }
+
+    @Test
+    void readsSequenceNumbers() {
+        PingOutputParser parser = new PingOutputParser();
+        parser.parse("64 bytes from 8.8.8.8: icmp_seq=42 ttl=117 time=12.3 ms");
+        assertEquals(42, parser.getSequence());
+        parser.parse("64 bytes from 1.1.1.1: seq=7 ttl=57 time=9.876 ms");
+        assertEquals(7, parser.getSequence());
+        parser.parse("Request timeout for icmp_seq 3");
+        assertEquals(3, parser.getSequence());
+        parser.parse("Reply from 192.168.1.1: bytes=32 time=1ms TTL=64");
+        assertEquals(-1, parser.getSequence());
+    }
+
+    @Test
+    void marksSubMillisecondWindowsRepliesAsUpperBound() {
+        PingOutputParser parser = new PingOutputParser();
+        parser.parse("Reply from 192.168.1.1: bytes=32 time<1ms TTL=64");
+        assertTrue(parser.isRttUpperBound());
+        parser.parse("Reply from 192.168.1.1: bytes=32 time=1ms TTL=64");
+        assertFalse(parser.isRttUpperBound());
+    }
+
+    @Test
+    void keepsMicrosecondPrecision() {
+        PingOutputParser parser = new PingOutputParser();
+        parser.parse("64 bytes from 127.0.0.1: icmp_seq=1 ttl=64 time=0.0456 ms");
+        assertEquals(45, parser.getRttMicros());
+        ProbeResult result = parser.toProbeResult();
+        assertEquals(ProbeResult.Status.REPLY, result.getStatus());
+        assertEquals(45, result.getRttMicros());
+        assertEquals(64, result.getTtl());
+    }
+
+    @Test
+    void ignoresEqualsSignsOutsideTheRtt() {
+        PingOutputParser parser = new PingOutputParser();
+        assertEquals(NONE, parser.parse("rtt min/avg/max/mdev = 0.045/0.053/0.061/0.008 ms"));
+        assertEquals(NONE, parser.parse("    Minimum = 0ms, Maximum = 48ms, Average = 9ms"));
+        assertEquals(NONE, parser.parse("uptime=12ms"));
+        assertEquals(NONE, parser.parse("time="));
+    }
+
+    @Test
+    void readsBackTheLinesProbeResultsFormat() {
+        PingOutputParser parser = new PingOutputParser();
+        assertEquals("Reply from 10.0.0.1: time=0.045ms TTL=64", ProbeResult.reply(45, 64).toOutputLine("10.0.0.1"));
+        assertEquals(REPLY, parser.parse(ProbeResult.reply(45, 64).toOutputLine("10.0.0.1")));
+        assertEquals(45, parser.getRttMicros());
+        assertEquals(64, parser.getTtl());
+        assertEquals(REPLY, parser.parse(ProbeResult.reply(12000).toOutputLine("10.0.0.1")));
+        assertEquals(12000, parser.getRttMicros());
+        assertEquals(TIMEOUT, parser.parse(ProbeResult.timeout().toOutputLine("10.0.0.1")));
+        assertEquals(UNREACHABLE, parser.parse(ProbeResult.unreachable().toOutputLine("10.0.0.1")));
+        assertEquals(TTL_EXCEEDED, parser.parse(ProbeResult.ttlExceeded().toOutputLine("10.0.0.1")));
+    }
+
+    private static List<String> loadCorpus() throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (InputStream in = PingOutputParserTest.class.getResourceAsStream("/ping-corpus.txt")) {
+            assertNotNull(in, "ping-corpus.txt is not on the test classpath");
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}